@@ -3,13 +3,24 @@ package boggle;
 import org.jgrapht.Graph;
 import org.jgrapht.graph.DefaultEdge;
 import org.jgrapht.graph.SimpleGraph;
+import tree.DictionaryRegistry;
 import tree.LexicographicTree;
 
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.TreeSet;
 
+/**
+ * Grille de Boggle et recherche de ses mots dans un dictionnaire.
+ *
+ * Une instance n'est pas thread-safe : la recherche marque les cases visitées
+ * de la grille et conserve les chemins et les compteurs de la dernière
+ * résolution. Des grilles peuvent être résolues en parallèle à raison d'une
+ * instance par thread.
+ */
 public class Boggle {
+	private static final int ALPHABET_SIZE = 28;
 
 	/**
 	 * Classe représentant un vertex au sein d'un graphe. Chaque noeud est
@@ -17,10 +28,12 @@ public class Boggle {
 	 */
 	private static class CustomVertex {
 		public char letter;
+		public int index;
 		public boolean hasBeenVisited = false;
 
-		CustomVertex(char c) {
+		CustomVertex(char c, int index) {
 			this.letter = c;
+			this.index = index;
 		}
 	}
 
@@ -30,6 +43,29 @@ public class Boggle {
 
 	private final Graph<CustomVertex, DefaultEdge> graph;
 
+	/*
+	 * Index de la grille : les vertex dans l'ordre de la grille, les positions
+	 * des cases par lettre et, pour chaque lettre, un masque des lettres
+	 * voisines (bigrammes présents dans la grille).
+	 */
+	private final CustomVertex[] cells;
+	private final int[][] cellsByLetter;
+	private final int[] bigrams;
+
+	/*
+	 * Enregistrement (optionnel) des chemins formant les mots trouvés.
+	 */
+	private int maxPathsPerWord = 0;
+	private PathOccurrences occurrences = null;
+	private short[] currentPath = null;
+
+	/*
+	 * Compteurs (optionnels) de la dernière résolution, publiés à la fin de la
+	 * résolution pour pouvoir être lus depuis un autre thread.
+	 */
+	private boolean statsEnabled = false;
+	private volatile SolveStats stats = null;
+
 	/*
 	 * CONSTRUCTORS
 	 */
@@ -58,12 +94,16 @@ public class Boggle {
 		this.dict = dict;
 		this.graph = new SimpleGraph<>(DefaultEdge.class);
 
+		this.cells = new CustomVertex[size * size];
+		this.bigrams = new int[ALPHABET_SIZE];
+
 		CustomVertex[][] buffer = new CustomVertex[size][size];
 
 		for (int row = 0, i = 0; row < size; row++) {
 			for (int col = 0; col < size; col++, i++) {
-				CustomVertex v = new CustomVertex(letters.charAt(i));
+				CustomVertex v = new CustomVertex(letters.charAt(i), i);
 				graph.addVertex(buffer[row][col] = v);
+				cells[i] = v;
 
 				addVertexConnection(buffer, v, row, col - 1);
 				addVertexConnection(buffer, v, row - 1, col - 1);
@@ -71,6 +111,8 @@ public class Boggle {
 				addVertexConnection(buffer, v, row - 1, col + 1);
 			}
 		}
+
+		this.cellsByLetter = indexCellsByLetter(cells);
 	}
 
 	/*
@@ -93,14 +135,31 @@ public class Boggle {
 	 * @return true if the word is present, false otherwise
 	 */
 	public boolean contains(String word) {
+		return isPossibleWord(word) && searchGrid(word);
+	}
 
-		for (CustomVertex vertex : graph.vertexSet()) {
-			if (searchWord(word, 0, vertex)) {
-				return true;
+	/**
+	 * Determines if all the supplied words can be found in the Boggle grid.
+	 * Impossible words are rejected from the grid index before any search is
+	 * started.
+	 * 
+	 * @param words a collection of words
+	 * @return true if every word is present, false otherwise
+	 */
+	public boolean containsAll(Collection<String> words) {
+		for (String word : words) {
+			if (!isPossibleWord(word)) {
+				return false;
 			}
 		}
 
-		return false;
+		for (String word : new HashSet<>(words)) {
+			if (!searchGrid(word)) {
+				return false;
+			}
+		}
+
+		return true;
 	}
 
 	/**
@@ -110,14 +169,87 @@ public class Boggle {
 	 */
 	public Set<String> solve() {
 		Set<String> foundWords = new HashSet<>();
+		startRecording();
+
+		SolveStats counters = statsEnabled ? new SolveStats(size) : null;
+		for (CustomVertex vertex : cells) {
+			long cellStartTime = counters != null ? System.nanoTime() : 0;
+			dfs(vertex, "", foundWords, counters);
+			if (counters != null) {
+				counters.startCellNanos[vertex.index] = System.nanoTime() - cellStartTime;
+			}
+		}
 
-		for (CustomVertex vertex : graph.vertexSet()) {
-			dfs(vertex, "", foundWords);
+		if (counters != null) {
+			counters.finish(foundWords.size());
+		}
+		stats = counters;
+		return foundWords;
+	}
+
+	/**
+	 * Cherche les mots de la grille en ne démarrant la recherche que depuis
+	 * certaines cases (utilisé par la résolution par tuiles). Les chemins sont
+	 * enregistrés comme par solve().
+	 * 
+	 * @param startCells les positions (ligne par ligne) des cases de départ
+	 * @return l'ensemble des mots trouvés
+	 */
+	Set<String> solveFrom(int[] startCells) {
+		Set<String> foundWords = new HashSet<>();
+		startRecording();
+
+		for (int cell : startCells) {
+			dfs(cells[cell], "", foundWords, null);
 		}
 
 		return foundWords;
 	}
 
+	/**
+	 * Enables or disables the recording of the grid paths spelling each found
+	 * word during the next calls to solve().
+	 * 
+	 * @param maxPathsPerWord the maximum number of paths kept for a word, 0 to
+	 *                        disable the recording
+	 */
+	public void recordOccurrences(int maxPathsPerWord) {
+		if (maxPathsPerWord > 0 && cells.length > PathOccurrences.MAX_CELLS) {
+			throw new IllegalArgumentException("Grid too large to record paths : " + size + "x" + size);
+		}
+		this.maxPathsPerWord = Math.max(0, maxPathsPerWord);
+	}
+
+	/**
+	 * Returns the paths recorded during the last call to solve().
+	 * 
+	 * @return the recorded paths, null if the recording was disabled
+	 */
+	public PathOccurrences occurrences() {
+		return occurrences;
+	}
+
+	/**
+	 * Enables or disables the gathering of solver counters during the next
+	 * calls to solve(). When enabled, each solve also emits a "boggle.Solve"
+	 * JFR event spanning the solve.
+	 * 
+	 * @param enabled true to gather the counters
+	 */
+	public void recordStats(boolean enabled) {
+		this.statsEnabled = enabled;
+	}
+
+	/**
+	 * Returns the counters gathered during the last call to solve(). They may
+	 * be read from another thread once solve() has returned.
+	 * 
+	 * @return the counters, null if their gathering was disabled
+	 */
+	public SolveStats stats() {
+		return stats;
+	}
+
 	/**
 	 * Returns a textual representation of the Boggle grid.
 	 * 
@@ -160,6 +292,20 @@ public class Boggle {
 		return sb.toString();
 	}
 
+	/**
+	 * Prépare l'enregistrement des chemins d'une nouvelle résolution, s'il est
+	 * activé.
+	 */
+	private void startRecording() {
+		if (maxPathsPerWord > 0) {
+			occurrences = new PathOccurrences(maxPathsPerWord);
+			currentPath = new short[cells.length];
+		} else {
+			occurrences = null;
+			currentPath = null;
+		}
+	}
+
 	/**
 	 * Ajoute un vertex à un vertex à une coordonnée donnée dans la grille du
 	 * Boggle.
@@ -171,8 +317,118 @@ public class Boggle {
 	 */
 	private void addVertexConnection(CustomVertex[][] vertexes, CustomVertex vertex, int row, int col) {
 		if (isSafeCoord(row, col)) {
-			graph.addEdge(vertexes[row][col], vertex);
+			CustomVertex neighbor = vertexes[row][col];
+			graph.addEdge(neighbor, vertex);
+
+			int a = letterIndex(neighbor.letter);
+			int b = letterIndex(vertex.letter);
+			if (a >= 0 && b >= 0) {
+				bigrams[a] |= 1 << b;
+				bigrams[b] |= 1 << a;
+			}
+		}
+	}
+
+	/**
+	 * Regroupe les positions des cases de la grille selon leur lettre.
+	 * 
+	 * @param cells les vertex de la grille (ordre ligne par ligne)
+	 * @return pour chaque lettre, le tableau des positions des cases la portant
+	 */
+	private static int[][] indexCellsByLetter(CustomVertex[] cells) {
+		int[] counts = new int[ALPHABET_SIZE];
+		for (CustomVertex cell : cells) {
+			int index = letterIndex(cell.letter);
+			if (index >= 0) {
+				counts[index]++;
+			}
+		}
+
+		int[][] result = new int[ALPHABET_SIZE][];
+		for (int i = 0; i < ALPHABET_SIZE; i++) {
+			result[i] = new int[counts[i]];
+			counts[i] = 0;
+		}
+		for (int i = 0; i < cells.length; i++) {
+			int index = letterIndex(cells[i].letter);
+			if (index >= 0) {
+				result[index][counts[index]++] = i;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Retourne la position d'une lettre dans l'alphabet du dictionnaire (les
+	 * caractères - et ' occupent les positions 26 et 27).
+	 * 
+	 * @param c la lettre
+	 * @return la position de la lettre, -1 si elle n'appartient pas à l'alphabet
+	 */
+	private static int letterIndex(char c) {
+		if (c >= 'a' && c <= 'z') {
+			return c - 'a';
 		}
+		return c == '-' ? 26 : c == '\'' ? 27 : -1;
+	}
+
+	/**
+	 * Vérifie, en temps linéaire et à l'aide de l'index de la grille, qu'un mot
+	 * n'est pas impossible à former : sa première lettre doit être présente et
+	 * chacun de ses bigrammes doit exister entre deux cases voisines. Les
+	 * caractères absents de l'alphabet du dictionnaire ne sont pas indexés : ni
+	 * eux ni leurs bigrammes ne permettent d'écarter le mot.
+	 * 
+	 * @param word le mot à vérifier
+	 * @return la valeur {@code false} si le mot ne peut pas être formé,
+	 *         {@code true} s'il doit encore être cherché dans la grille
+	 */
+	private boolean isPossibleWord(String word) {
+		int length = word.length();
+		if (length == 0 || length > cells.length) {
+			return false;
+		}
+
+		int previous = letterIndex(word.charAt(0));
+		if (previous >= 0 && cellsByLetter[previous].length == 0) {
+			return false;
+		}
+		for (int i = 1; i < length; i++) {
+			int current = letterIndex(word.charAt(i));
+			if (previous >= 0 && current >= 0 && (bigrams[previous] & (1 << current)) == 0) {
+				return false;
+			}
+			previous = current;
+		}
+		return true;
+	}
+
+	/**
+	 * Cherche un mot non vide dans la grille, depuis les cases portant sa
+	 * première lettre ou, si elle est absente de l'index, depuis toutes les
+	 * cases.
+	 * 
+	 * @param word le mot à chercher
+	 * @return la valeur {@code true} si le mot peut être formé dans la grille,
+	 *         {@code false} sinon
+	 */
+	private boolean searchGrid(String word) {
+		int first = letterIndex(word.charAt(0));
+		if (first < 0) {
+			for (CustomVertex cell : cells) {
+				if (searchWord(word, 0, cell)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		for (int cell : cellsByLetter[first]) {
+			if (searchWord(word, 0, cells[cell])) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	/**
@@ -235,16 +491,38 @@ public class Boggle {
 	 * @param vertex      le vertex courant
 	 * @param currentWord le mot formé actuellement
 	 * @param foundWords  la collection des mots trouvés
+	 * @param counters    les compteurs de la résolution, ou {@code null}
 	 */
-	private void dfs(CustomVertex vertex, String currentWord, Set<String> foundWords) {
+	private void dfs(CustomVertex vertex, String currentWord, Set<String> foundWords, SolveStats counters) {
+		if (letterIndex(vertex.letter) < 0) {
+			return; // case de bourrage ou lettre absente du dictionnaire
+		}
 		vertex.hasBeenVisited = true;
 		currentWord += vertex.letter;
 
+		if (occurrences != null) {
+			currentPath[currentWord.length() - 1] = (short) vertex.index;
+		}
+		if (counters != null) {
+			counters.nodesVisited++;
+			counters.maxDepth = Math.max(counters.maxDepth, currentWord.length());
+		}
+
 		if (currentWord.length() >= 3 && dict.containsWord(currentWord)) {
 			foundWords.add(currentWord);
+			if (occurrences != null) {
+				occurrences.record(currentWord, currentPath, currentWord.length());
+			}
+			if (counters != null) {
+				counters.dictionaryHits++;
+			}
 		}
 
-		if (dict.containsPrefix(currentWord)) {
+		if (!dict.containsPrefix(currentWord)) {
+			if (counters != null) {
+				counters.prefixRejections++;
+			}
+		} else {
 			for (DefaultEdge edge : graph.edgesOf(vertex)) {
 				CustomVertex source = graph.getEdgeSource(edge);
 				CustomVertex target = graph.getEdgeTarget(edge);
@@ -252,7 +530,7 @@ public class Boggle {
 				CustomVertex neighbor = source.equals(vertex) ? target : source;
 
 				if (!neighbor.hasBeenVisited) {
-					dfs(neighbor, currentWord, foundWords);
+					dfs(neighbor, currentWord, foundWords, counters);
 				}
 			}
 		}
@@ -265,11 +543,10 @@ public class Boggle {
 	 */
 
 	public static void main(String[] args) {
-		long startTime = System.currentTimeMillis();
+		long startTime = System.nanoTime();
 		System.out.println("Loading dictionary...");
-		LexicographicTree dictionary = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt");
-		long loadDictTime = System.currentTimeMillis();
-		System.out.println("Duration : " + (loadDictTime - startTime) / 1000.0);
+		LexicographicTree dictionary = DictionaryRegistry.shared().get("mots/dictionnaire_FR_sans_accents.txt");
+		System.out.println("Duration : " + (System.nanoTime() - startTime) / 1e9);
 		System.out.println("Number of words : " + dictionary.size());
 		System.out.println();
 
@@ -297,9 +574,9 @@ public class Boggle {
 
 		// Solve grid
 		System.out.println("Solving Boggle grid...");
+		boggle.recordStats(true);
 		Set<String> results = boggle.solve();
-		long solveTime = System.currentTimeMillis();
-		System.out.println("Duration : " + (solveTime - loadDictTime) / 1000.0);
+		System.out.println(boggle.stats());
 		System.out.println("Number of words found : " + results.size());
 		System.out.println(new TreeSet<String>(results).toString());
 	}
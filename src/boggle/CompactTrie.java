@@ -0,0 +1,121 @@
+package boggle;
+
+import tree.TrieNode;
+
+/**
+ * Copie figée d'un arbre lexicographique sous forme de deux tableaux d'entiers,
+ * destinée aux parcours intensifs de l'évaluateur de grilles.
+ *
+ * Un noeud est un indice. Pour chaque noeud, un masque donne ses enfants (un
+ * bit par lettre, dans l'ordre de {@link TrieNode}) et s'il termine un mot ;
+ * les enfants d'un noeud sont consécutifs, à partir de l'indice de son premier
+ * enfant, et sont numérotés en profondeur pour que les noeuds d'un même
+ * sous-arbre restent proches en mémoire. Les indices étant denses, ils servent
+ * aussi d'identifiants de mots. Une instance est immuable et peut être partagée
+ * entre threads.
+ */
+final class CompactTrie {
+	static final int ROOT = 0;
+	static final int NONE = -1;
+
+	private static final int CHILDREN = (1 << 28) - 1;
+	private static final int END_WORD = 1 << 28;
+
+	private final int[] masks;
+	private final int[] firstChildren;
+
+	/**
+	 * Copie un arbre lexicographique.
+	 *
+	 * @param root la racine de l'arbre
+	 */
+	CompactTrie(TrieNode root) {
+		int count = countNodes(root);
+		this.masks = new int[count];
+		this.firstChildren = new int[count];
+		copy(root, ROOT, ROOT + 1);
+	}
+
+	/**
+	 * @return le nombre de noeuds de l'arbre
+	 */
+	int nodeCount() {
+		return masks.length;
+	}
+
+	/**
+	 * Retourne l'enfant d'un noeud pour une lettre.
+	 *
+	 * @param node   le noeud
+	 * @param letter la position de la lettre parmi les enfants (0 à 27)
+	 * @return l'enfant, ou NONE s'il n'existe pas
+	 */
+	int child(int node, int letter) {
+		int mask = masks[node];
+		int bit = 1 << letter;
+		if ((mask & bit) == 0) {
+			return NONE;
+		}
+		return firstChildren[node] + Integer.bitCount(mask & (bit - 1));
+	}
+
+	/**
+	 * @return la valeur {@code true} si le noeud termine un mot, {@code false}
+	 *         sinon
+	 */
+	boolean isEndWord(int node) {
+		return (masks[node] & END_WORD) != 0;
+	}
+
+	/**
+	 * @return la position d'une lettre parmi les enfants d'un noeud
+	 */
+	static int index(char letter) {
+		return letter == '-' ? 26 : letter == '\'' ? 27 : letter - 'a';
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Copie, de façon récursive, un sous-arbre : les enfants du noeud sont placés
+	 * à partir de la première position libre, puis leurs sous-arbres à la suite.
+	 *
+	 * @param node la racine du sous-arbre
+	 * @param id   l'indice attribué à la racine
+	 * @param next la première position libre
+	 * @return la première position libre après la copie
+	 */
+	private int copy(TrieNode node, int id, int next) {
+		int mask = node.isEndWord() ? END_WORD : 0;
+		for (int i = 0; i < 28; i++) {
+			if (node.getChildren(i) != null) {
+				mask |= 1 << i;
+			}
+		}
+		masks[id] = mask;
+		firstChildren[id] = next;
+
+		int child = next;
+		next += Integer.bitCount(mask & CHILDREN);
+		for (int i = 0; i < 28; i++) {
+			TrieNode c = node.getChildren(i);
+			if (c != null) {
+				next = copy(c, child++, next);
+			}
+		}
+		return next;
+	}
+
+	private static int countNodes(TrieNode node) {
+		int count = 1;
+		for (int i = 0; i < 28; i++) {
+			TrieNode child = node.getChildren(i);
+			if (child != null) {
+				count += countNodes(child);
+			}
+		}
+		return count;
+	}
+}
@@ -0,0 +1,455 @@
+package boggle;
+
+import java.util.Arrays;
+
+/**
+ * Evaluation incrémentale d'une grille de Boggle, destinée à être appelée des
+ * milliers de fois par seconde (recherche de grilles).
+ *
+ * La grille est un simple tableau de lettres et la recherche avance directement
+ * dans une copie compacte de l'arbre lexicographique ({@link CompactTrie}),
+ * noeud par noeud, sans construire de chaînes de caractères. L'évaluateur
+ * conserve tous les chemins de la grille formant un préfixe de mot, sous la
+ * forme d'une forêt : chaque chemin est l'enfant du chemin privé de sa dernière
+ * case. Un mot est présent tant qu'au moins un chemin le forme. Les chemins
+ * sont de plus chaînés par dernière case.
+ *
+ * Lorsqu'une case change de lettre, seuls les chemins passant par cette case
+ * sont concernés. Un chemin ne passant qu'une fois par une case, ce sont
+ * exactement les sous-arbres enracinés sur les chemins se terminant sur la
+ * case, qui sont détachés ; les nouveaux chemins sont obtenus en prolongeant
+ * vers la case les chemins restants se terminant sur une case voisine. Une
+ * mutation ne parcourt donc que les chemins retirés, les chemins créés et les
+ * chemins se terminant à côté de la case. Une instance n'est pas thread-safe :
+ * chaque thread utilise la sienne.
+ */
+final class GridEvaluator {
+	private static final int NONE = -1;
+	private static final int SENTINEL = 0;
+
+	private final CompactTrie trie;
+	private final int[][] neighbors;
+	private final boolean[] visited;
+	private final int[] starts = new int[8];
+	private char[] grid;
+
+	/*
+	 * Forêt des chemins : pour chaque chemin, son noeud dans l'arbre
+	 * lexicographique, sa dernière case, sa longueur, s'il forme un mot, son
+	 * parent, ses enfants et ses voisins dans la liste des chemins se terminant
+	 * sur la même case. L'entrée SENTINEL est le chemin vide, racine de la forêt
+	 * ; les entrées libérées sont chaînées par nextSibling.
+	 */
+	private int[] nodes = new int[1024];
+	private int[] cells = new int[1024];
+	private int[] depths = new int[1024];
+	private boolean[] endWords = new boolean[1024];
+	private int[] parents = new int[1024];
+	private int[] firstChild = new int[1024];
+	private int[] nextSibling = new int[1024];
+	private int[] previousInCell = new int[1024];
+	private int[] nextInCell = new int[1024];
+	private final int[] cellHeads;
+	private int entries = 0;
+	private int freeList = NONE;
+
+	/*
+	 * Nombre de chemins formant chaque mot, indexé par le noeud terminal du mot.
+	 */
+	private final int[] wordPaths;
+
+	private int words;
+	private int score;
+
+	/*
+	 * Journal permettant d'annuler la dernière mutation : sous-arbres détachés
+	 * et sous-arbres ajoutés.
+	 */
+	private int mutatedCell = NONE;
+	private char previousLetter;
+	private int[] removed = new int[64];
+	private int removedCount = 0;
+	private int[] added = new int[64];
+	private int addedCount = 0;
+
+	/**
+	 * Crée un évaluateur pour des grilles d'une taille donnée.
+	 *
+	 * @param size la taille de la grille carrée
+	 * @param trie l'arbre lexicographique
+	 */
+	GridEvaluator(int size, CompactTrie trie) {
+		int cellCount = size * size;
+		this.trie = trie;
+		this.wordPaths = new int[trie.nodeCount()];
+		this.neighbors = new int[cellCount][];
+		this.visited = new boolean[cellCount];
+		this.cellHeads = new int[cellCount];
+
+		int[] buffer = new int[8];
+		for (int row = 0, i = 0; row < size; row++) {
+			for (int col = 0; col < size; col++, i++) {
+				int count = 0;
+				for (int dr = -1; dr <= 1; dr++) {
+					for (int dc = -1; dc <= 1; dc++) {
+						int r = row + dr, c = col + dc;
+						if ((dr != 0 || dc != 0) && r >= 0 && c >= 0 && r < size && c < size) {
+							buffer[count++] = r * size + c;
+						}
+					}
+				}
+				neighbors[i] = Arrays.copyOf(buffer, count);
+			}
+		}
+	}
+
+	/**
+	 * Evalue entièrement une grille : compte les mots distincts d'au moins 3
+	 * lettres et calcule leur score. La grille est ensuite modifiée par
+	 * {@link #mutate(int, char)}.
+	 *
+	 * @param grid les lettres (minuscules, ligne par ligne) de la grille
+	 */
+	void evaluate(char[] grid) {
+		this.grid = grid;
+		this.words = 0;
+		this.score = 0;
+		this.mutatedCell = NONE;
+		this.removedCount = 0;
+		this.addedCount = 0;
+		Arrays.fill(wordPaths, 0);
+		Arrays.fill(cellHeads, NONE);
+
+		entries = 0;
+		freeList = NONE;
+		newEntry(NONE, NONE, CompactTrie.ROOT, 0);
+		for (int start = 0; start < grid.length; start++) {
+			int node = trie.child(CompactTrie.ROOT, CompactTrie.index(grid[start]));
+			if (node != NONE) {
+				grow(SENTINEL, start, node);
+			}
+		}
+	}
+
+	/**
+	 * Change la lettre d'une case et met à jour l'évaluation en ne remplaçant
+	 * que les chemins passant par cette case. La mutation peut être annulée par
+	 * {@link #revert()} jusqu'à la mutation suivante.
+	 *
+	 * @param cell   la case modifiée
+	 * @param letter la nouvelle lettre
+	 */
+	void mutate(int cell, char letter) {
+		for (int i = 0; i < removedCount; i++) {
+			free(removed[i]);
+		}
+		removedCount = 0;
+		addedCount = 0;
+
+		mutatedCell = cell;
+		previousLetter = grid[cell];
+		grid[cell] = letter;
+
+		for (int entry = cellHeads[cell]; entry != NONE;) {
+			int next = nextInCell[entry];
+			detach(entry);
+			removed = log(removed, removedCount++, entry);
+			countPaths(entry, -1);
+			entry = next;
+		}
+
+		// les chemins créés sont ajoutés en tête des listes : seuls les chemins
+		// présents avant la mutation sont prolongés
+		int[] around = neighbors[cell];
+		for (int i = 0; i < around.length; i++) {
+			starts[i] = cellHeads[around[i]];
+		}
+		extend(SENTINEL);
+		for (int i = 0; i < around.length; i++) {
+			for (int entry = starts[i]; entry != NONE; entry = nextInCell[entry]) {
+				extend(entry);
+			}
+		}
+	}
+
+	/**
+	 * Annule la dernière mutation.
+	 */
+	void revert() {
+		if (mutatedCell < 0) {
+			return;
+		}
+		// chaque chemin ajouté est le premier enfant de son parent
+		for (int i = addedCount - 1; i >= 0; i--) {
+			int entry = added[i];
+			firstChild[parents[entry]] = nextSibling[entry];
+			countPaths(entry, -1);
+			free(entry);
+		}
+		for (int i = removedCount - 1; i >= 0; i--) {
+			int entry = removed[i], parent = parents[entry];
+			nextSibling[entry] = firstChild[parent];
+			firstChild[parent] = entry;
+			countPaths(entry, 1);
+		}
+		grid[mutatedCell] = previousLetter;
+		mutatedCell = NONE;
+		removedCount = 0;
+		addedCount = 0;
+	}
+
+	/**
+	 * @return le nombre de mots distincts de la grille
+	 */
+	int words() {
+		return words;
+	}
+
+	/**
+	 * @return le score de la grille
+	 */
+	int score() {
+		return score;
+	}
+
+	/**
+	 * Retourne le nombre de points rapportés par un mot selon sa longueur
+	 * (barème usuel du Boggle).
+	 *
+	 * @param length la longueur du mot
+	 * @return le nombre de points
+	 */
+	static int points(int length) {
+		if (length < 3) {
+			return 0;
+		}
+		switch (length) {
+		case 3:
+		case 4:
+			return 1;
+		case 5:
+			return 2;
+		case 6:
+			return 3;
+		case 7:
+			return 5;
+		default:
+			return 11;
+		}
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Prolonge vers la case modifiée un chemin ne passant pas par elle et se
+	 * terminant à côté d'elle (ou le chemin vide).
+	 *
+	 * @param entry le chemin à prolonger
+	 */
+	private void extend(int entry) {
+		int node = trie.child(nodes[entry], CompactTrie.index(grid[mutatedCell]));
+		if (node == NONE) {
+			return;
+		}
+		mark(entry, true);
+		added = log(added, addedCount++, grow(entry, mutatedCell, node));
+		mark(entry, false);
+	}
+
+	/**
+	 * Ajoute un chemin prolongé d'une case puis, en profondeur, tous les chemins
+	 * le prolongeant et formant un préfixe de mot.
+	 *
+	 * @param parent le chemin à prolonger
+	 * @param cell   la case ajoutée, voisine de la dernière case du chemin et
+	 *               absente du chemin
+	 * @param node   le noeud de l'arbre lexicographique du nouveau chemin
+	 * @return le nouveau chemin
+	 */
+	private int grow(int parent, int cell, int node) {
+		int entry = newEntry(parent, cell, node, depths[parent] + 1);
+		visited[cell] = true;
+		for (int neighbor : neighbors[cell]) {
+			if (!visited[neighbor]) {
+				int child = trie.child(node, CompactTrie.index(grid[neighbor]));
+				if (child != NONE) {
+					grow(entry, neighbor, child);
+				}
+			}
+		}
+		visited[cell] = false;
+		return entry;
+	}
+
+	/**
+	 * Crée un chemin, l'ajoute en tête des enfants de son parent et de la liste
+	 * de sa case, et comptabilise le mot qu'il forme.
+	 *
+	 * @param parent le chemin privé de sa dernière case, ou NONE
+	 * @param cell   la dernière case du chemin, ou NONE
+	 * @param node   le noeud de l'arbre lexicographique correspondant au chemin
+	 * @param depth  la longueur du chemin
+	 * @return le chemin créé
+	 */
+	private int newEntry(int parent, int cell, int node, int depth) {
+		int entry = freeList;
+		if (entry != NONE) {
+			freeList = nextSibling[entry];
+		} else {
+			entry = entries++;
+			if (entry == nodes.length) {
+				int capacity = entry * 2;
+				nodes = Arrays.copyOf(nodes, capacity);
+				cells = Arrays.copyOf(cells, capacity);
+				depths = Arrays.copyOf(depths, capacity);
+				endWords = Arrays.copyOf(endWords, capacity);
+				parents = Arrays.copyOf(parents, capacity);
+				firstChild = Arrays.copyOf(firstChild, capacity);
+				nextSibling = Arrays.copyOf(nextSibling, capacity);
+				previousInCell = Arrays.copyOf(previousInCell, capacity);
+				nextInCell = Arrays.copyOf(nextInCell, capacity);
+			}
+		}
+
+		nodes[entry] = node;
+		cells[entry] = cell;
+		depths[entry] = depth;
+		endWords[entry] = depth >= 3 && trie.isEndWord(node);
+		parents[entry] = parent;
+		firstChild[entry] = NONE;
+		nextSibling[entry] = NONE;
+		if (endWords[entry] && wordPaths[node]++ == 0) {
+			words++;
+			score += points(depth);
+		}
+		if (parent != NONE) {
+			nextSibling[entry] = firstChild[parent];
+			firstChild[parent] = entry;
+			link(entry);
+		}
+		return entry;
+	}
+
+	/**
+	 * Retire un chemin des enfants de son parent.
+	 *
+	 * @param entry le chemin
+	 */
+	private void detach(int entry) {
+		int parent = parents[entry];
+		if (firstChild[parent] == entry) {
+			firstChild[parent] = nextSibling[entry];
+			return;
+		}
+		int previous = firstChild[parent];
+		while (nextSibling[previous] != entry) {
+			previous = nextSibling[previous];
+		}
+		nextSibling[previous] = nextSibling[entry];
+	}
+
+	/**
+	 * Libère un sous-arbre détaché de la forêt et déjà retiré de l'évaluation.
+	 *
+	 * @param entry la racine du sous-arbre
+	 */
+	private void free(int entry) {
+		for (int child = firstChild[entry]; child != NONE;) {
+			int next = nextSibling[child];
+			free(child);
+			child = next;
+		}
+		nextSibling[entry] = freeList;
+		freeList = entry;
+	}
+
+	/**
+	 * Ajoute ou retire de l'évaluation, et des listes par case, les chemins d'un
+	 * sous-arbre.
+	 *
+	 * @param entry la racine du sous-arbre
+	 * @param delta 1 pour ajouter les chemins, -1 pour les retirer
+	 */
+	private void countPaths(int entry, int delta) {
+		if (delta > 0) {
+			link(entry);
+		} else {
+			unlink(entry);
+		}
+		if (endWords[entry]) {
+			int word = nodes[entry];
+			int before = wordPaths[word];
+			wordPaths[word] = before + delta;
+			if (before == 0) {
+				words++;
+				score += points(depths[entry]);
+			} else if (before + delta == 0) {
+				words--;
+				score -= points(depths[entry]);
+			}
+		}
+		for (int child = firstChild[entry]; child != NONE; child = nextSibling[child]) {
+			countPaths(child, delta);
+		}
+	}
+
+	/**
+	 * Ajoute un chemin en tête de la liste des chemins se terminant sur sa case.
+	 *
+	 * @param entry le chemin
+	 */
+	private void link(int entry) {
+		int cell = cells[entry];
+		int next = cellHeads[cell];
+		previousInCell[entry] = NONE;
+		nextInCell[entry] = next;
+		if (next != NONE) {
+			previousInCell[next] = entry;
+		}
+		cellHeads[cell] = entry;
+	}
+
+	/**
+	 * Retire un chemin de la liste des chemins se terminant sur sa case.
+	 *
+	 * @param entry le chemin
+	 */
+	private void unlink(int entry) {
+		int previous = previousInCell[entry], next = nextInCell[entry];
+		if (previous == NONE) {
+			cellHeads[cells[entry]] = next;
+		} else {
+			nextInCell[previous] = next;
+		}
+		if (next != NONE) {
+			previousInCell[next] = previous;
+		}
+	}
+
+	/**
+	 * Marque, ou démarque, les cases d'un chemin comme visitées.
+	 *
+	 * @param entry le chemin
+	 * @param value la valeur des marques
+	 */
+	private void mark(int entry, boolean value) {
+		for (int e = entry; e != SENTINEL; e = parents[e]) {
+			visited[cells[e]] = value;
+		}
+	}
+
+	/**
+	 * Ajoute un chemin à un journal, en l'agrandissant si nécessaire.
+	 *
+	 * @return le journal
+	 */
+	private static int[] log(int[] journal, int length, int entry) {
+		if (length == journal.length) {
+			journal = Arrays.copyOf(journal, length * 2);
+		}
+		journal[length] = entry;
+		return journal;
+	}
+}
@@ -0,0 +1,284 @@
+package boggle;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import tree.DictionaryRegistry;
+import tree.LexicographicTree;
+
+/**
+ * Recherche de grilles de Boggle atteignant un nombre de mots et/ou un score
+ * cible (ou, à défaut, le meilleur score possible).
+ *
+ * Chaque chaîne effectue un recuit simulé : à chaque étape, une case reçoit une
+ * nouvelle lettre, la grille est réévaluée de façon incrémentale (seuls les
+ * chemins passant par la case modifiée sont remplacés, voir
+ * {@link GridEvaluator}) et la modification est conservée ou annulée. Le
+ * dictionnaire est copié sous une forme compacte à la construction : les
+ * modifications ultérieures du dictionnaire sont ignorées. Les chaînes sont indépendantes et s'exécutent en
+ * parallèle ; chacune a son propre générateur aléatoire, dérivé de la graine,
+ * et son propre évaluateur.
+ */
+public final class GridOptimizer {
+	/**
+	 * Réserve de lettres tirées lors des mutations, pondérée selon la fréquence
+	 * des lettres en français.
+	 */
+	private static final String LETTER_POOL = "eeeeeeeeeeeeeeeaaaaaaaaiiiiiiiisssssssnnnnnnnrrrrrrrttttttt"
+			+ "uuuuuuoooooolllllddddcccmmmppgbvhfqyxjkwz";
+	private static final double INITIAL_TEMPERATURE = 3.0;
+
+	/**
+	 * Résultat d'une chaîne : la meilleure grille trouvée et son évaluation.
+	 *
+	 * @param letters les lettres de la grille
+	 * @param words   le nombre de mots distincts de la grille
+	 * @param score   le score de la grille
+	 * @param steps   le nombre d'étapes effectuées par la chaîne
+	 */
+	public record GridScore(String letters, int words, int score, long steps) {
+	}
+
+	private final int size;
+	private final CompactTrie trie;
+	private final int targetWords;
+	private final int targetScore;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructor : prepares the search of grids with the best possible score.
+	 *
+	 * @param size The size of the squared grids
+	 * @param dict A dictionary of allowed words
+	 */
+	public GridOptimizer(int size, LexicographicTree dict) {
+		this(size, dict, 0, 0);
+	}
+
+	/**
+	 * Constructor : prepares the search of grids close to a target. A target
+	 * lower than or equal to zero is ignored; if both are ignored, the best
+	 * possible score is searched.
+	 *
+	 * @param size        The size of the squared grids
+	 * @param dict        A dictionary of allowed words
+	 * @param targetWords The expected number of distinct words
+	 * @param targetScore The expected score
+	 */
+	public GridOptimizer(int size, LexicographicTree dict, int targetWords, int targetScore) {
+		this.size = size;
+		this.trie = new CompactTrie(dict.root());
+		this.targetWords = targetWords;
+		this.targetScore = targetScore;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Evaluates a grid.
+	 *
+	 * @param letters A string containing the (size x size) letters of the grid
+	 * @return the number of distinct words and the score of the grid
+	 */
+	public GridScore evaluate(String letters) {
+		GridEvaluator evaluator = new GridEvaluator(size, trie);
+		evaluator.evaluate(letters.toCharArray());
+		return new GridScore(letters, evaluator.words(), evaluator.score(), 0);
+	}
+
+	/**
+	 * Runs independent chains in parallel until the time budget is spent and
+	 * returns the best grid of each chain, best first. When there are more
+	 * chains than processors, the budget is shared between the successive
+	 * rounds of chains.
+	 *
+	 * @param seed             The seed from which each chain seed is derived
+	 * @param chains           The number of chains
+	 * @param timeBudgetMillis The time budget, in milliseconds
+	 * @return the best grid found by each chain
+	 * @throws IllegalArgumentException If the number of chains or the time
+	 *                                  budget is not positive
+	 */
+	public List<GridScore> optimize(long seed, int chains, long timeBudgetMillis) {
+		return optimize(seed, chains, timeBudgetMillis, 0);
+	}
+
+	/**
+	 * Runs independent chains in parallel and returns the best grid of each
+	 * chain, best first. A chain stops after maxSteps steps or when the time
+	 * budget is spent; with a step limit reached before the budget, the results
+	 * only depend on the seed.
+	 *
+	 * @param seed             The seed from which each chain seed is derived
+	 * @param chains           The number of chains
+	 * @param timeBudgetMillis The time budget, in milliseconds
+	 * @param maxSteps         The maximum number of steps per chain, 0 for no
+	 *                         limit
+	 * @return the best grid found by each chain
+	 * @throws IllegalArgumentException If the number of chains or the time
+	 *                                  budget is not positive, or if the step
+	 *                                  limit is negative
+	 */
+	public List<GridScore> optimize(long seed, int chains, long timeBudgetMillis, long maxSteps) {
+		if (chains < 1) {
+			throw new IllegalArgumentException("Invalid number of chains : " + chains);
+		}
+		if (timeBudgetMillis < 1) {
+			throw new IllegalArgumentException("Invalid time budget : " + timeBudgetMillis);
+		}
+		if (maxSteps < 0) {
+			throw new IllegalArgumentException("Invalid step limit : " + maxSteps);
+		}
+		SplittableRandom seeds = new SplittableRandom(seed);
+		int threads = Math.min(chains, Runtime.getRuntime().availableProcessors());
+		int rounds = (chains + threads - 1) / threads;
+		long chainBudgetMillis = Math.max(1, timeBudgetMillis / rounds);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<GridScore>> futures = new ArrayList<>();
+			for (int i = 0; i < chains; i++) {
+				SplittableRandom random = seeds.split();
+				futures.add(executor.submit(() -> runChain(random, chainBudgetMillis, maxSteps)));
+			}
+
+			List<GridScore> results = new ArrayList<>();
+			for (Future<GridScore> future : futures) {
+				results.add(future.get());
+			}
+			results.sort(Comparator.comparingDouble((GridScore g) -> fitness(g.words(), g.score()))
+					.reversed()
+					.thenComparing(GridScore::letters));
+			return results;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Grid search interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Grid search failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Exécute une chaîne de recuit simulé.
+	 *
+	 * @param random           le générateur aléatoire de la chaîne
+	 * @param timeBudgetMillis le budget de temps de la chaîne, en millisecondes
+	 * @param maxSteps         le nombre maximal d'étapes, 0 pour aucune limite
+	 * @return la meilleure grille rencontrée
+	 */
+	private GridScore runChain(SplittableRandom random, long timeBudgetMillis, long maxSteps) {
+		long deadline = System.nanoTime() + timeBudgetMillis * 1_000_000;
+		GridEvaluator evaluator = new GridEvaluator(size, trie);
+		char[] grid = new char[size * size];
+		for (int i = 0; i < grid.length; i++) {
+			grid[i] = LETTER_POOL.charAt(random.nextInt(LETTER_POOL.length()));
+		}
+
+		evaluator.evaluate(grid);
+		double current = fitness(evaluator.words(), evaluator.score());
+		double best = current;
+		GridScore bestGrid = new GridScore(new String(grid), evaluator.words(), evaluator.score(), 0);
+
+		long budgetNanos = Math.max(1, timeBudgetMillis * 1_000_000);
+		double progress = 0;
+		long step = 0;
+		while (progress < 1) {
+			step++;
+			int cell = random.nextInt(grid.length);
+			char letter;
+			do {
+				letter = LETTER_POOL.charAt(random.nextInt(LETTER_POOL.length()));
+			} while (letter == grid[cell]);
+
+			evaluator.mutate(cell, letter);
+			double candidate = fitness(evaluator.words(), evaluator.score());
+			double temperature = INITIAL_TEMPERATURE * (1 - progress);
+			double delta = candidate - current;
+
+			if (delta >= 0 || (temperature > 0 && random.nextDouble() < Math.exp(delta / temperature))) {
+				current = candidate;
+				if (current > best) {
+					best = current;
+					bestGrid = new GridScore(new String(grid), evaluator.words(), evaluator.score(), 0);
+					if (best == 0 && (targetWords > 0 || targetScore > 0)) {
+						break; // cibles atteintes
+					}
+				}
+			} else {
+				evaluator.revert();
+			}
+
+			// Avancement : selon le nombre d'étapes s'il est limité, sinon selon le temps
+			long remaining = deadline - System.nanoTime();
+			if (remaining <= 0) {
+				break;
+			}
+			progress = maxSteps > 0 ? (double) step / maxSteps : 1 - (double) remaining / budgetNanos;
+		}
+
+		return new GridScore(bestGrid.letters(), bestGrid.words(), bestGrid.score(), step);
+	}
+
+	/**
+	 * Calcule la valeur d'une grille à maximiser : son score si aucune cible
+	 * n'est fixée, l'opposé de l'écart aux cibles sinon.
+	 *
+	 * @param words le nombre de mots distincts de la grille
+	 * @param score le score de la grille
+	 * @return la valeur de la grille
+	 */
+	private double fitness(int words, int score) {
+		if (targetWords <= 0 && targetScore <= 0) {
+			return score;
+		}
+		double distance = 0;
+		if (targetWords > 0) {
+			distance += Math.abs(words - targetWords);
+		}
+		if (targetScore > 0) {
+			distance += Math.abs(score - targetScore);
+		}
+		return -distance;
+	}
+
+	/*
+	 * MAIN PROGRAM
+	 */
+
+	public static void main(String[] args) {
+		long startTime = System.nanoTime();
+		System.out.println("Loading dictionary...");
+		LexicographicTree dictionary = DictionaryRegistry.shared().get("mots/dictionnaire_FR_sans_accents.txt");
+		System.out.println("Duration : " + (System.nanoTime() - startTime) / 1e9);
+		System.out.println();
+
+		// Throughput of a single chain on 5x5 grids (the first run warms up the JIT)
+		long budgetMillis = 3000;
+		for (int run = 0; run < 3; run++) {
+			GridScore best = new GridOptimizer(5, dictionary).optimize(run, 1, budgetMillis).get(0);
+			System.out.printf("Best score : %d steps, %.0f steps/s, %d words, score %d, %s%n", best.steps(),
+					best.steps() * 1000.0 / budgetMillis, best.words(), best.score(), best.letters());
+
+			GridScore target = new GridOptimizer(5, dictionary, 300, 0).optimize(run, 1, budgetMillis).get(0);
+			System.out.printf("300 words  : %d steps, %d words, score %d, %s%n", target.steps(), target.words(),
+					target.score(), target.letters());
+		}
+	}
+}
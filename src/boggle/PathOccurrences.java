@@ -0,0 +1,144 @@
+package boggle;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Classe regroupant les chemins de la grille formant chacun des mots trouvés
+ * lors de la résolution d'un Boggle.
+ *
+ * Les chemins sont stockés de façon compacte dans une seule zone mémoire
+ * partagée (arena) : chaque chemin y occupe sa longueur suivie des positions
+ * de ses cases (ordre ligne par ligne), codées sur 16 bits non signés. Chaque
+ * mot ne conserve que la position de ses chemins dans cette zone.
+ */
+public final class PathOccurrences {
+	/**
+	 * Nombre maximal de cases d'une grille dont les positions tiennent sur 16
+	 * bits non signés.
+	 */
+	static final int MAX_CELLS = 1 << 16;
+
+	/**
+	 * Position des chemins d'un mot dans l'arena.
+	 */
+	private static class Entry {
+		int count = 0;
+		int[] starts = new int[1];
+	}
+
+	private final int maxPathsPerWord;
+	private final Map<String, Entry> entries = new HashMap<>();
+	private short[] arena = new short[256];
+	private int arenaLength = 0;
+	private int pathCount = 0;
+
+	/**
+	 * Crée un index des chemins vide.
+	 *
+	 * @param maxPathsPerWord le nombre maximal de chemins conservés par mot
+	 */
+	PathOccurrences(int maxPathsPerWord) {
+		this.maxPathsPerWord = maxPathsPerWord;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the words for which at least one path has been recorded.
+	 *
+	 * @return an unmodifiable set of words
+	 */
+	public Set<String> words() {
+		return Collections.unmodifiableSet(entries.keySet());
+	}
+
+	/**
+	 * Returns the number of recorded paths spelling a word. This number never
+	 * exceeds the cap given when recording was enabled.
+	 *
+	 * @param word a word
+	 * @return the number of recorded paths, 0 if the word was not found
+	 */
+	public int pathCount(String word) {
+		Entry entry = entries.get(word);
+		return entry == null ? 0 : entry.count;
+	}
+
+	/**
+	 * Returns one of the recorded paths spelling a word, as cell indices in
+	 * row-major order (index = row * size + col).
+	 *
+	 * @param word a word
+	 * @param n    the rank of the path, between 0 and pathCount(word) - 1
+	 * @return the cell indices of the path
+	 */
+	public int[] path(String word, int n) {
+		Entry entry = entries.get(word);
+		if (entry == null || n < 0 || n >= entry.count) {
+			throw new IndexOutOfBoundsException("No path " + n + " for word " + word);
+		}
+
+		int start = entry.starts[n];
+		int[] cells = new int[arena[start]];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = arena[start + 1 + i] & 0xFFFF;
+		}
+		return cells;
+	}
+
+	/**
+	 * Returns the total number of recorded paths.
+	 *
+	 * @return the number of paths, all words included
+	 */
+	public int pathCount() {
+		return pathCount;
+	}
+
+	/**
+	 * Returns the number of 16-bit slots used in the shared path storage.
+	 *
+	 * @return the used length of the storage
+	 */
+	public int arenaLength() {
+		return arenaLength;
+	}
+
+	/*
+	 * PACKAGE METHODS
+	 */
+
+	/**
+	 * Enregistre un chemin formant un mot, sauf si le nombre maximal de chemins
+	 * pour ce mot est déjà atteint.
+	 *
+	 * @param word   le mot formé
+	 * @param path   les positions des cases du chemin
+	 * @param length la longueur du chemin
+	 */
+	void record(String word, short[] path, int length) {
+		Entry entry = entries.computeIfAbsent(word, w -> new Entry());
+		if (entry.count >= maxPathsPerWord) {
+			return;
+		}
+
+		if (arenaLength + length + 1 > arena.length) {
+			arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaLength + length + 1));
+		}
+		if (entry.count == entry.starts.length) {
+			entry.starts = Arrays.copyOf(entry.starts, entry.count * 2);
+		}
+
+		entry.starts[entry.count++] = arenaLength;
+		arena[arenaLength] = (short) length;
+		System.arraycopy(path, 0, arena, arenaLength + 1, length);
+		arenaLength += length + 1;
+		pathCount++;
+	}
+}
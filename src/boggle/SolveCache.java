@@ -0,0 +1,74 @@
+package boggle;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import cache.ResultCache;
+import tree.LexicographicTree;
+
+/**
+ * Cache des résolutions de grilles de Boggle, pour les grilles rencontrées
+ * plusieurs fois (grilles du jour, rejeux).
+ *
+ * Une résolution est identifiée par la taille et les lettres de la grille et
+ * par l'empreinte du dictionnaire : un dictionnaire modifié ou différent ne
+ * réutilise pas les résultats d'un autre.
+ */
+public final class SolveCache {
+	private final ResultCache<TreeSet<String>> cache;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructor : creates a cache kept in memory only.
+	 *
+	 * @param maxEntries The maximum number of grids kept in memory
+	 */
+	public SolveCache(int maxEntries) {
+		this(maxEntries, null);
+	}
+
+	/**
+	 * Constructor : creates a cache spilling its results to a directory.
+	 *
+	 * @param maxEntries     The maximum number of grids kept in memory
+	 * @param spillDirectory A directory receiving the results, or null to keep
+	 *                       them in memory only
+	 * @see ResultCache#ResultCache(int, Path)
+	 */
+	public SolveCache(int maxEntries, Path spillDirectory) {
+		this.cache = new ResultCache<>(maxEntries, spillDirectory);
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the words of a Boggle grid, solving it only if it was not solved
+	 * before with the same dictionary content.
+	 *
+	 * @param size    The size of the squared grid
+	 * @param letters The (size x size) letters of the grid
+	 * @param dict    A dictionary of allowed words
+	 * @return The sorted, unmodifiable set of found words
+	 * @see Boggle#solve()
+	 */
+	public Set<String> solve(int size, String letters, LexicographicTree dict) {
+		String key = "boggle:" + size + ":" + letters + ":" + Long.toHexString(dict.fingerprint());
+		return Collections.unmodifiableSet(cache.get(key, () -> new TreeSet<>(new Boggle(size, letters, dict).solve())));
+	}
+
+	/**
+	 * Returns the statistics of the cache.
+	 *
+	 * @return The hits, misses and evictions
+	 */
+	public ResultCache.Stats stats() {
+		return cache.stats();
+	}
+}
@@ -0,0 +1,178 @@
+package boggle;
+
+import java.util.Arrays;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Classe regroupant les compteurs d'une résolution de grille de Boggle.
+ *
+ * Les compteurs sont propres à une résolution : une instance est créée par
+ * chaque résolution et n'est mise à jour que par le thread qui résout la
+ * grille, sans synchronisation, ce qui permet de résoudre plusieurs grilles en
+ * parallèle sans contention. Elle est publiée par la grille une fois la
+ * résolution terminée. L'événement JFR est démarré à la création des compteurs et
+ * terminé avec la résolution, de sorte que sa durée est celle de la
+ * résolution.
+ */
+public final class SolveStats {
+
+	/**
+	 * Evénement JFR émis à la fin de chaque résolution instrumentée.
+	 */
+	@Name("boggle.Solve")
+	@Label("Boggle Solve")
+	@Category("Boggle")
+	static final class SolveEvent extends Event {
+		@Label("Grid Size")
+		int gridSize;
+		@Label("Nodes Visited")
+		long nodesVisited;
+		@Label("Prefix Rejections")
+		long prefixRejections;
+		@Label("Dictionary Hits")
+		long dictionaryHits;
+		@Label("Max Depth")
+		int maxDepth;
+		@Label("Words Found")
+		int wordsFound;
+		@Label("Solve Time")
+		@Timespan(Timespan.NANOSECONDS)
+		long solveNanos;
+	}
+
+	private final int gridSize;
+	private final SolveEvent event = new SolveEvent();
+	private final long startNanos;
+	long nodesVisited = 0;
+	long prefixRejections = 0;
+	long dictionaryHits = 0;
+	int maxDepth = 0;
+	int wordsFound = 0;
+	long solveNanos = 0;
+	final long[] startCellNanos;
+
+	/**
+	 * Crée un ensemble de compteurs vierges pour une grille, au début de sa
+	 * résolution.
+	 *
+	 * @param gridSize la taille de la grille
+	 */
+	SolveStats(int gridSize) {
+		this.gridSize = gridSize;
+		this.startCellNanos = new long[gridSize * gridSize];
+		event.begin();
+		this.startNanos = System.nanoTime();
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * @return the number of DFS nodes visited
+	 */
+	public long nodesVisited() {
+		return nodesVisited;
+	}
+
+	/**
+	 * @return the number of paths abandoned because no word starts with them
+	 */
+	public long prefixRejections() {
+		return prefixRejections;
+	}
+
+	/**
+	 * @return the number of paths spelling a dictionary word (duplicates
+	 *         included)
+	 */
+	public long dictionaryHits() {
+		return dictionaryHits;
+	}
+
+	/**
+	 * @return the maximum recursion depth reached
+	 */
+	public int maxDepth() {
+		return maxDepth;
+	}
+
+	/**
+	 * @return the number of distinct words found
+	 */
+	public int wordsFound() {
+		return wordsFound;
+	}
+
+	/**
+	 * @return the total solve time, in nanoseconds
+	 */
+	public long solveNanos() {
+		return solveNanos;
+	}
+
+	/**
+	 * Returns the time spent searching from each start cell.
+	 *
+	 * @return the times in nanoseconds, indexed by row-major cell index
+	 */
+	public long[] startCellNanos() {
+		return Arrays.copyOf(startCellNanos, startCellNanos.length);
+	}
+
+	/**
+	 * @return the number of distinct words found per second
+	 */
+	public double wordsPerSecond() {
+		return solveNanos == 0 ? 0 : wordsFound * 1e9 / solveNanos;
+	}
+
+	/**
+	 * Returns a textual summary of the counters.
+	 *
+	 * @return a textual summary of the counters
+	 */
+	public String toString() {
+		long slowestCell = 0;
+		for (long nanos : startCellNanos) {
+			slowestCell = Math.max(slowestCell, nanos);
+		}
+		return String.format(
+				"Duration : %.3f%nNodes visited : %d%nPrefix rejections : %d%nDictionary hits : %d%n"
+						+ "Max depth : %d%nSlowest start cell : %.3f ms%nWords per second : %.0f",
+				solveNanos / 1e9, nodesVisited, prefixRejections, dictionaryHits, maxDepth, slowestCell / 1e6,
+				wordsPerSecond());
+	}
+
+	/*
+	 * PACKAGE METHODS
+	 */
+
+	/**
+	 * Termine la résolution : enregistre sa durée et le nombre de mots trouvés,
+	 * puis émet l'événement JFR correspondant aux compteurs, si un
+	 * enregistrement est en cours.
+	 *
+	 * @param wordsFound le nombre de mots distincts trouvés
+	 */
+	void finish(int wordsFound) {
+		this.solveNanos = System.nanoTime() - startNanos;
+		this.wordsFound = wordsFound;
+		event.end();
+		if (event.shouldCommit()) {
+			event.gridSize = gridSize;
+			event.nodesVisited = nodesVisited;
+			event.prefixRejections = prefixRejections;
+			event.dictionaryHits = dictionaryHits;
+			event.maxDepth = maxDepth;
+			event.wordsFound = wordsFound;
+			event.solveNanos = solveNanos;
+			event.commit();
+		}
+	}
+}
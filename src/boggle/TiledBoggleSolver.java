@@ -0,0 +1,156 @@
+package boggle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import tree.LexicographicTree;
+
+/**
+ * Résolution d'une grande grille de Boggle par tuiles.
+ *
+ * La grille est découpée en blocs carrés. Chaque bloc est entouré d'une
+ * bordure (halo) aussi large que le plus long mot du dictionnaire moins une
+ * case : un chemin démarrant dans le bloc ne peut pas en sortir davantage. Une
+ * grille de Boggle n'est construite que pour le bloc et son halo, et la
+ * recherche ne démarre que depuis les cases du bloc. L'union des mots trouvés
+ * par chaque tuile est donc identique au résultat de {@link Boggle#solve()}.
+ */
+public final class TiledBoggleSolver {
+	private static final char PADDING = ' ';
+
+	private final int size;
+	private final String letters;
+	private final LexicographicTree dict;
+	private final int tileSize;
+	private final int halo;
+
+	/*
+	 * CONSTRUCTOR
+	 */
+
+	/**
+	 * Constructor : prepares the tiled resolution of a Boggle grid.
+	 *
+	 * @param size     The size of the squared grid
+	 * @param letters  A string containing the (size x size) letters of the grid
+	 * @param dict     A dictionary of allowed words
+	 * @param tileSize The size of the squared blocks the grid is split into
+	 */
+	public TiledBoggleSolver(int size, String letters, LexicographicTree dict, int tileSize) {
+		if (tileSize <= 0) {
+			throw new IllegalArgumentException("Invalid tile size : " + tileSize);
+		}
+		this.size = size;
+		this.letters = letters;
+		this.dict = dict;
+		this.tileSize = tileSize;
+		this.halo = Math.max(0, dict.maxWordLength() - 1);
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Searches for words in the Boggle grid, one tile after the other.
+	 *
+	 * @return the set of found words
+	 */
+	public Set<String> solve() {
+		Set<String> foundWords = new HashSet<>();
+		for (int row = 0; row < size; row += tileSize) {
+			for (int col = 0; col < size; col += tileSize) {
+				foundWords.addAll(solveTile(row, col));
+			}
+		}
+		return foundWords;
+	}
+
+	/**
+	 * Searches for words in the Boggle grid, solving the tiles in parallel.
+	 * Each worker only holds the grid of the tile it is solving.
+	 *
+	 * @param parallelism The number of worker threads
+	 * @return the set of found words
+	 */
+	public Set<String> solve(int parallelism) {
+		ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+		try {
+			List<Future<Set<String>>> tiles = new ArrayList<>();
+			for (int row = 0; row < size; row += tileSize) {
+				for (int col = 0; col < size; col += tileSize) {
+					final int tileRow = row, tileCol = col;
+					tiles.add(executor.submit(() -> solveTile(tileRow, tileCol)));
+				}
+			}
+
+			Set<String> foundWords = new HashSet<>();
+			for (Future<Set<String>> tile : tiles) {
+				foundWords.addAll(tile.get());
+			}
+			return foundWords;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Tiled resolution interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Tiled resolution failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the number of tiles the grid is split into.
+	 *
+	 * @return the number of tiles
+	 */
+	public int tileCount() {
+		int tilesPerSide = (size + tileSize - 1) / tileSize;
+		return tilesPerSide * tilesPerSide;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Résout une tuile : construit la grille (carrée) du bloc et de son halo,
+	 * complétée si besoin par des cases de bourrage, puis cherche les mots
+	 * depuis les cases du bloc uniquement.
+	 *
+	 * @param tileRow la première ligne du bloc
+	 * @param tileCol la première colonne du bloc
+	 * @return l'ensemble des mots démarrant dans le bloc
+	 */
+	private Set<String> solveTile(int tileRow, int tileCol) {
+		int lastRow = Math.min(size, tileRow + tileSize);
+		int lastCol = Math.min(size, tileCol + tileSize);
+		int fromRow = Math.max(0, tileRow - halo);
+		int fromCol = Math.max(0, tileCol - halo);
+		int toRow = Math.min(size, lastRow + halo);
+		int toCol = Math.min(size, lastCol + halo);
+		int side = Math.max(toRow - fromRow, toCol - fromCol);
+
+		char[] tileLetters = new char[side * side];
+		Arrays.fill(tileLetters, PADDING);
+		for (int row = fromRow; row < toRow; row++) {
+			letters.getChars(row * size + fromCol, row * size + toCol, tileLetters, (row - fromRow) * side);
+		}
+
+		int[] startCells = new int[(lastRow - tileRow) * (lastCol - tileCol)];
+		for (int row = tileRow, i = 0; row < lastRow; row++) {
+			for (int col = tileCol; col < lastCol; col++, i++) {
+				startCells[i] = (row - fromRow) * side + (col - fromCol);
+			}
+		}
+
+		return new Boggle(side, new String(tileLetters), dict).solveFrom(startCells);
+	}
+}
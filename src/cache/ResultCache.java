@@ -0,0 +1,293 @@
+package cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Cache borné de résultats de calculs coûteux (résolutions de grilles,
+ * analyses de cryptogrammes), identifiés par une clé textuelle.
+ *
+ * Les résultats sont conservés en mémoire dans la limite d'un nombre
+ * d'entrées, en évinçant le moins récemment utilisé. Si un répertoire est
+ * fourni, chaque résultat calculé y est aussi écrit et les résultats évincés
+ * ou calculés par une exécution précédente y sont relus ; ce répertoire n'est
+ * qu'une aide : un fichier illisible est ignoré et une écriture impossible est
+ * comptée sans faire échouer la demande. Les demandes concurrentes d'une même
+ * clé absente attendent un calcul unique.
+ *
+ * @param <V> le type des résultats
+ */
+public final class ResultCache<V extends Serializable> {
+	/**
+	 * Statistics of a cache.
+	 *
+	 * @param hits        The number of requests answered from memory, including
+	 *                    the requests waiting for a computation in progress
+	 * @param diskHits    The number of requests answered from the spill
+	 *                    directory
+	 * @param misses      The number of computations
+	 * @param evictions   The number of entries evicted from memory
+	 * @param spillErrors The number of spill files that could not be written
+	 * @param size        The number of entries in memory
+	 */
+	public record Stats(long hits, long diskHits, long misses, long evictions, long spillErrors, int size) {
+		/**
+		 * @return The share of the requests answered without computation,
+		 *         between 0 and 1
+		 */
+		public double hitRate() {
+			long requests = hits + diskHits + misses;
+			return requests == 0 ? 0 : (double) (hits + diskHits) / requests;
+		}
+
+		@Override
+		public String toString() {
+			return String.format("hits=%d diskHits=%d misses=%d hitRate=%.1f%% evictions=%d spillErrors=%d size=%d", hits, diskHits,
+					misses, hitRate() * 100, evictions, spillErrors, size);
+		}
+	}
+
+	private final int maxEntries;
+	private final Path spillDirectory;
+	private final Map<String, V> entries;
+	private final Map<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder diskHits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder spillErrors = new LongAdder();
+	private long evictions = 0;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructor : creates a cache kept in memory only.
+	 *
+	 * @param maxEntries The maximum number of entries kept in memory
+	 */
+	public ResultCache(int maxEntries) {
+		this(maxEntries, null);
+	}
+
+	/**
+	 * Constructor : creates a cache spilling its results to a directory.
+	 *
+	 * @param maxEntries     The maximum number of entries kept in memory
+	 * @param spillDirectory A directory receiving one file per result, created
+	 *                       if needed, or null to keep the results in memory
+	 *                       only
+	 * @throws UncheckedIOException If the directory cannot be created
+	 */
+	public ResultCache(int maxEntries, Path spillDirectory) {
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException("Invalid maximum number of entries : " + maxEntries);
+		}
+		this.maxEntries = maxEntries;
+		this.spillDirectory = spillDirectory;
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+				if (size() > ResultCache.this.maxEntries) {
+					evictions++;
+					return true;
+				}
+				return false;
+			}
+		};
+		if (spillDirectory != null) {
+			try {
+				Files.createDirectories(spillDirectory);
+			} catch (IOException e) {
+				throw new UncheckedIOException("Cannot create cache directory " + spillDirectory, e);
+			}
+		}
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the result associated with a key, computing it if it is neither
+	 * in memory nor in the spill directory. Concurrent callers asking for the
+	 * same missing key wait for a single computation.
+	 *
+	 * @param key         A key identifying the computation and all its inputs
+	 * @param computation The computation, returning a non-null result
+	 * @return The cached or computed result, which must not be modified
+	 */
+	public V get(String key, Supplier<V> computation) {
+		V value = lookup(key);
+		if (value != null) {
+			hits.increment();
+			return value;
+		}
+
+		CompletableFuture<V> created = new CompletableFuture<>();
+		CompletableFuture<V> pending = inFlight.putIfAbsent(key, created);
+		if (pending != null) {
+			hits.increment();
+			try {
+				return pending.join();
+			} catch (CompletionException e) {
+				throw e.getCause() instanceof RuntimeException cause ? cause : e;
+			}
+		}
+
+		try {
+			value = lookup(key);
+			if (value != null) {
+				hits.increment();
+			} else {
+				value = readSpill(key);
+				if (value != null) {
+					diskHits.increment();
+				} else {
+					misses.increment();
+					value = Objects.requireNonNull(computation.get(), "Null result for " + key);
+					writeSpill(key, value);
+				}
+				synchronized (entries) {
+					entries.put(key, value);
+				}
+			}
+			created.complete(value);
+			return value;
+		} catch (RuntimeException e) {
+			created.completeExceptionally(e);
+			throw e;
+		} finally {
+			inFlight.remove(key, created);
+		}
+	}
+
+	/**
+	 * Returns the SHA-256 digest of a text, to build short keys from long
+	 * inputs.
+	 *
+	 * @param text A text
+	 * @return The digest, in hexadecimal
+	 */
+	public static String sha256(String text) {
+		try {
+			MessageDigest digest = MessageDigest.getInstance("SHA-256");
+			return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 unavailable", e);
+		}
+	}
+
+	/**
+	 * Returns the statistics of the cache since its creation.
+	 *
+	 * @return The hits, misses and evictions
+	 */
+	public Stats stats() {
+		synchronized (entries) {
+			return new Stats(hits.sum(), diskHits.sum(), misses.sum(), evictions, spillErrors.sum(), entries.size());
+		}
+	}
+
+	/**
+	 * Removes all the entries kept in memory. The spilled results are kept.
+	 */
+	public void clear() {
+		synchronized (entries) {
+			entries.clear();
+		}
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	private V lookup(String key) {
+		synchronized (entries) {
+			return entries.get(key);
+		}
+	}
+
+	/**
+	 * Relit un résultat écrit dans le répertoire de débordement.
+	 *
+	 * @param key la clé du résultat
+	 * @return le résultat, ou {@code null} s'il est absent ou illisible
+	 */
+	@SuppressWarnings("unchecked")
+	private V readSpill(String key) {
+		if (spillDirectory == null) {
+			return null;
+		}
+		Path file = spillFile(key);
+		if (!Files.exists(file)) {
+			return null;
+		}
+		try (InputStream in = Files.newInputStream(file); ObjectInputStream objects = new ObjectInputStream(in)) {
+			return key.equals(objects.readObject()) ? (V) objects.readObject() : null;
+		} catch (IOException | ClassNotFoundException | ClassCastException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Écrit un résultat dans le répertoire de débordement, dans un fichier
+	 * temporaire renommé ensuite pour que les lecteurs ne voient jamais un
+	 * fichier incomplet.
+	 *
+	 * @param key   la clé du résultat
+	 * @param value le résultat
+	 */
+	private void writeSpill(String key, V value) {
+		if (spillDirectory == null) {
+			return;
+		}
+		Path file = spillFile(key);
+		Path temporary = null;
+		try {
+			temporary = Files.createTempFile(spillDirectory, file.getFileName().toString(), ".tmp");
+			try (OutputStream out = Files.newOutputStream(temporary);
+					ObjectOutputStream objects = new ObjectOutputStream(out)) {
+				objects.writeObject(key);
+				objects.writeObject(value);
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			spillErrors.increment();
+			try {
+				if (temporary != null) {
+					Files.deleteIfExists(temporary);
+				}
+			} catch (IOException ignored) {
+				// le fichier temporaire sera écrasé ou ignoré
+			}
+		}
+	}
+
+	private Path spillFile(String key) {
+		return spillDirectory.resolve(sha256(key) + ".bin");
+	}
+
+}
@@ -0,0 +1,78 @@
+package cryptanalysis;
+
+import java.nio.file.Path;
+
+import cache.ResultCache;
+import tree.LexicographicTree;
+
+/**
+ * Cache des analyses par dictionnaire, pour les cryptogrammes soumis
+ * plusieurs fois (nouvelles tentatives).
+ *
+ * Une analyse est identifiée par l'empreinte SHA-256 du cryptogramme, par
+ * l'alphabet de départ et le nombre de candidats essayés par mot, et par
+ * l'empreinte du dictionnaire.
+ */
+public final class AnalysisCache {
+	private final ResultCache<String> cache;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructor : creates a cache kept in memory only.
+	 *
+	 * @param maxEntries The maximum number of analyses kept in memory
+	 */
+	public AnalysisCache(int maxEntries) {
+		this(maxEntries, null);
+	}
+
+	/**
+	 * Constructor : creates a cache spilling its results to a directory.
+	 *
+	 * @param maxEntries     The maximum number of analyses kept in memory
+	 * @param spillDirectory A directory receiving the results, or null to keep
+	 *                       them in memory only
+	 * @see ResultCache#ResultCache(int, Path)
+	 */
+	public AnalysisCache(int maxEntries, Path spillDirectory) {
+		this.cache = new ResultCache<>(maxEntries, spillDirectory);
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the approximated decoding alphabet of a cryptogram, running the
+	 * analysis only if it was not run before with the same inputs and the same
+	 * dictionary content.
+	 *
+	 * @param cryptogram        A cryptogram
+	 * @param alphabet          The decoding alphabet from which the analysis
+	 *                          starts
+	 * @param candidatesPerWord The maximum number of candidates tried for each
+	 *                          cryptogram word
+	 * @param dict              The dictionary of valid words
+	 * @return The decoding alphabet at the end of the analysis process
+	 * @see DictionaryBasedAnalysis#guessApproximatedAlphabet(String, int)
+	 */
+	public String guessApproximatedAlphabet(String cryptogram, String alphabet, int candidatesPerWord,
+			LexicographicTree dict) {
+		String key = "analysis:" + ResultCache.sha256(cryptogram) + ":" + alphabet + ":" + candidatesPerWord + ":"
+				+ Long.toHexString(dict.fingerprint());
+		return cache.get(key,
+				() -> new DictionaryBasedAnalysis(cryptogram, dict).guessApproximatedAlphabet(alphabet, candidatesPerWord));
+	}
+
+	/**
+	 * Returns the statistics of the cache.
+	 *
+	 * @return The hits, misses and evictions
+	 */
+	public ResultCache.Stats stats() {
+		return cache.stats();
+	}
+}
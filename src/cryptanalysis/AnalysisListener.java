@@ -0,0 +1,71 @@
+package cryptanalysis;
+
+/**
+ * Observateur du déroulement d'une analyse par dictionnaire.
+ *
+ * Toutes les méthodes ont une implémentation vide : un observateur ne
+ * redéfinit que les événements qui l'intéressent. Lorsque plusieurs candidats
+ * sont évalués en parallèle, les événements sont tout de même reçus sur le
+ * thread de l'analyse.
+ */
+public interface AnalysisListener {
+	/**
+	 * Observateur ignorant tous les événements.
+	 */
+	AnalysisListener NONE = new AnalysisListener() {
+	};
+
+	/**
+	 * Amélioration du score de l'alphabet courant.
+	 *
+	 * @param cryptogramWord   le mot chiffré traité
+	 * @param invalidDecoded   son déchiffrement (invalide) par l'alphabet courant
+	 * @param candidate        le mot du dictionnaire retenu
+	 * @param startAlphabet    l'alphabet de départ de l'analyse
+	 * @param previousAlphabet l'alphabet courant avant l'amélioration
+	 * @param newAlphabet      le nouvel alphabet courant
+	 * @param words            le nombre de mots du cryptogramme
+	 * @param score            le nombre de mots déchiffrés par le nouvel
+	 *                         alphabet
+	 */
+	record Improvement(String cryptogramWord, String invalidDecoded, String candidate, String startAlphabet,
+			String previousAlphabet, String newAlphabet, int words, int score) {
+	}
+
+	/**
+	 * Called when the analysis starts processing the cryptogram words of a new
+	 * length.
+	 *
+	 * @param length The length of the words
+	 */
+	default void lengthStarted(int length) {
+	}
+
+	/**
+	 * Called for each candidate alphabet evaluated.
+	 *
+	 * @param cryptogramWord The cryptogram word being processed
+	 * @param candidate      The dictionary word it is mapped to
+	 * @param score          The score of the resulting alphabet
+	 */
+	default void candidateTried(String cryptogramWord, String candidate, int score) {
+	}
+
+	/**
+	 * Called when a candidate alphabet improves the best score.
+	 *
+	 * @param improvement The description of the improvement
+	 */
+	default void scoreImproved(Improvement improvement) {
+	}
+
+	/**
+	 * Called at the end of the analysis.
+	 *
+	 * @param alphabet            The final decoding alphabet
+	 * @param candidatesEvaluated The number of candidate alphabets evaluated
+	 * @param dictionaryLookups   The number of dictionary lookups
+	 */
+	default void finished(String alphabet, long candidatesEvaluated, long dictionaryLookups) {
+	}
+}
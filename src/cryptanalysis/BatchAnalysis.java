@@ -0,0 +1,145 @@
+package cryptanalysis;
+
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+import tree.LexicographicTree;
+
+/**
+ * Analyse d'un lot de cryptogrammes sur un même dictionnaire.
+ *
+ * Les cryptogrammes sont analysés simultanément par un nombre borné de
+ * threads. Le dictionnaire n'est lu que pendant les analyses ; son index (mots
+ * regroupés par longueur et par motif) est construit une seule fois et partagé
+ * par toutes les analyses. Les résultats sont transmis dans l'ordre où
+ * les analyses se terminent.
+ */
+public final class BatchAnalysis {
+	/**
+	 * Résultat de l'analyse d'un cryptogramme.
+	 *
+	 * @param index         la position du cryptogramme dans le lot
+	 * @param alphabet      l'alphabet de déchiffrement obtenu
+	 * @param latencyNanos  la durée écoulée entre le début du lot et la fin de
+	 *                      l'analyse
+	 * @param analysisNanos la durée de l'analyse elle-même
+	 */
+	public record Result(int index, String alphabet, long latencyNanos, long analysisNanos) {
+	}
+
+	/**
+	 * Bilan d'un lot.
+	 *
+	 * @param messages     le nombre de cryptogrammes analysés
+	 * @param elapsedNanos la durée totale du lot
+	 */
+	public record Summary(int messages, long elapsedNanos) {
+		/**
+		 * @return le nombre de cryptogrammes analysés par seconde
+		 */
+		public double messagesPerSecond() {
+			return elapsedNanos == 0 ? 0 : messages * 1e9 / elapsedNanos;
+		}
+	}
+
+	private final LexicographicTree dict;
+	private final int parallelism;
+	private final DictionaryIndex dictionaryIndex;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructor : creates a batch runner using one thread per processor.
+	 *
+	 * @param dict A dictionary, which must not be modified during the analyses
+	 */
+	public BatchAnalysis(LexicographicTree dict) {
+		this(dict, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor : creates a batch runner.
+	 *
+	 * @param dict        A dictionary, which must not be modified during the
+	 *                    analyses
+	 * @param parallelism The maximum number of cryptograms analysed
+	 *                    simultaneously
+	 */
+	public BatchAnalysis(LexicographicTree dict, int parallelism) {
+		if (parallelism <= 0) {
+			throw new IllegalArgumentException("Invalid parallelism : " + parallelism);
+		}
+		this.dict = dict;
+		this.dictionaryIndex = DictionaryIndex.of(dict);
+		this.parallelism = parallelism;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Analyses cryptograms concurrently, each one starting from the same
+	 * alphabet. Each result is passed to the consumer, on the calling thread,
+	 * as soon as its analysis is over.
+	 *
+	 * @param cryptograms The texts to analyse
+	 * @param alphabet    The decoding alphabet from which each analysis starts
+	 * @param results     Receives the results in completion order
+	 * @return The number of analysed cryptograms and the total duration
+	 */
+	public Summary analyze(List<String> cryptograms, String alphabet, Consumer<Result> results) {
+		long start = System.nanoTime();
+		if (cryptograms.isEmpty()) {
+			return new Summary(0, 0);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, cryptograms.size()));
+		try {
+			CompletionService<Result> completion = new ExecutorCompletionService<>(executor);
+			for (int i = 0; i < cryptograms.size(); i++) {
+				int index = i;
+				completion.submit(() -> analyze(index, cryptograms.get(index), alphabet, start));
+			}
+			for (int i = 0; i < cryptograms.size(); i++) {
+				results.accept(completion.take().get());
+			}
+			return new Summary(cryptograms.size(), System.nanoTime() - start);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Batch analysis interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Batch analysis failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Analyse un cryptogramme du lot.
+	 *
+	 * @param index      la position du cryptogramme dans le lot
+	 * @param cryptogram le cryptogramme
+	 * @param alphabet   l'alphabet de départ
+	 * @param batchStart l'instant de début du lot
+	 * @return le résultat de l'analyse
+	 */
+	private Result analyze(int index, String cryptogram, String alphabet, long batchStart) {
+		long start = System.nanoTime();
+		DictionaryBasedAnalysis analysis = new DictionaryBasedAnalysis(cryptogram, dict, dictionaryIndex);
+		String result = analysis.guessApproximatedAlphabet(alphabet);
+		long end = System.nanoTime();
+		return new Result(index, result, end - batchStart, end - start);
+	}
+}
@@ -0,0 +1,55 @@
+package cryptanalysis;
+
+import java.io.PrintStream;
+
+/**
+ * Observateur affichant le déroulement d'une analyse dans la console : chaque
+ * nouvelle longueur de mots et chaque amélioration du score.
+ */
+public final class ConsoleAnalysisListener implements AnalysisListener {
+	private final PrintStream out;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructor : creates a listener printing to the standard output.
+	 */
+	public ConsoleAnalysisListener() {
+		this(System.out);
+	}
+
+	/**
+	 * Constructor : creates a listener printing to a stream.
+	 *
+	 * @param out The stream to print to
+	 */
+	public ConsoleAnalysisListener(PrintStream out) {
+		this.out = out;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	@Override
+	public void lengthStarted(int length) {
+		out.println(">>> Words of length " + length);
+	}
+
+	@Override
+	public void scoreImproved(Improvement improvement) {
+		out.printf("%-20s -> %s\n", "Cryptogram word", improvement.cryptogramWord());
+		out.printf("%-20s -> %s\n", "Invalid decoded word", improvement.invalidDecoded());
+		out.printf("%-20s -> %s\n", "Candidate word", improvement.candidate());
+		out.println();
+		out.printf("%-20s -> %s\n", "Standard alphabet", improvement.startAlphabet());
+		out.printf("%-20s -> %s\n", "Approximated alphabet", improvement.previousAlphabet());
+		out.printf("%-20s -> %s\n", "New approxim alphabet", improvement.newAlphabet());
+		out.println();
+		out.printf("=> Score decoded : words = %d / valid = %d / invalid = %d\n", improvement.words(),
+				improvement.score(), improvement.words() - improvement.score());
+		out.println();
+	}
+}
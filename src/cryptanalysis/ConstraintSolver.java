@@ -0,0 +1,376 @@
+package cryptanalysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import tree.LexicographicTree;
+
+/**
+ * Recherche exacte (par retour arrière) d'un alphabet de déchiffrement.
+ *
+ * Les mots du cryptogramme sont déchiffrés un à un, en commençant toujours par
+ * le mot ayant le moins de candidats compatibles avec les lettres déjà
+ * attribuées. Un candidat est un mot du dictionnaire de même motif (mêmes
+ * répétitions de lettres) ; l'attribution des lettres reste injective. Une
+ * branche est abandonnée dès que le nombre de mots déjà déchiffrés, augmenté
+ * du nombre de mots ayant encore au moins un candidat compatible, ne peut plus
+ * dépasser la meilleure solution connue. Les candidats compatibles d'un mot
+ * sont mémorisés selon les lettres déjà attribuées à ce mot.
+ */
+public final class ConstraintSolver {
+	private static final int MAX_MEMO_ENTRIES = 200_000;
+
+	/**
+	 * Résultat d'une recherche.
+	 *
+	 * @param alphabet            l'alphabet de déchiffrement complet (les
+	 *                            lettres non déterminées reçoivent les lettres
+	 *                            claires restantes, dans l'ordre alphabétique)
+	 * @param undeterminedLetters les lettres chiffrées non déterminées par la
+	 *                            recherche
+	 * @param decodedWords        le nombre de mots retenus déchiffrés par
+	 *                            l'alphabet
+	 * @param words               le nombre de mots retenus pour la recherche
+	 * @param exhaustive          {@code true} si la recherche a pu être menée à
+	 *                            son terme (solution optimale)
+	 */
+	public record Solution(String alphabet, String undeterminedLetters, int decodedWords, int words,
+			boolean exhaustive) {
+	}
+
+	private final List<String> cryptogramWords;
+	private final LexicographicTree dict;
+
+	/*
+	 * Etat de la recherche
+	 */
+	private String[] words;
+	private char[][][] candidates;
+	private List<Map<String, int[]>> memo;
+	private int memoEntries;
+	private final byte[] cipherToPlain = new byte[26];
+	private final byte[] plainToCipher = new byte[26];
+	private byte[] bestMapping;
+	private int bestDecoded;
+	private long nodes;
+	private long maxNodes;
+
+	/*
+	 * CONSTRUCTOR
+	 */
+
+	/**
+	 * Constructor : prepares the exact analysis of a cryptogram.
+	 *
+	 * @param cryptogram A text encoded with a substitution alphabet
+	 * @param dict       A dictionary of allowed words
+	 */
+	public ConstraintSolver(String cryptogram, LexicographicTree dict) {
+		this.cryptogramWords = CryptogramWords.tokenize(cryptogram, 3).words();
+		this.dict = dict;
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Searches the decoding alphabet decoding the most cryptogram words, among
+	 * the 'maxWords' most constrained ones (fewest dictionary words sharing
+	 * their pattern, longest first). The search stops after 'maxNodes' explored
+	 * states and then returns the best alphabet found so far.
+	 *
+	 * @param maxWords The number of cryptogram words taken into account
+	 * @param maxNodes The maximum number of explored states
+	 * @return The best alphabet found and the letters it leaves undetermined
+	 */
+	public Solution solve(int maxWords, long maxNodes) {
+		selectWords(maxWords);
+		this.memo = new ArrayList<>();
+		for (int i = 0; i < words.length; i++) {
+			memo.add(new HashMap<>());
+		}
+		this.memoEntries = 0;
+		this.nodes = 0;
+		this.maxNodes = maxNodes;
+		this.bestDecoded = -1;
+		Arrays.fill(cipherToPlain, (byte) -1);
+		Arrays.fill(plainToCipher, (byte) -1);
+
+		int[] remaining = new int[words.length];
+		for (int i = 0; i < remaining.length; i++) {
+			remaining[i] = i;
+		}
+		search(remaining, remaining.length, 0);
+
+		return toSolution(nodes <= maxNodes);
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Retient les mots les plus contraints du cryptogramme et, pour chacun, les
+	 * mots du dictionnaire de même motif.
+	 *
+	 * @param maxWords le nombre de mots retenus
+	 */
+	private void selectWords(int maxWords) {
+		DictionaryIndex index = DictionaryIndex.of(dict);
+		Map<String, char[][]> byPattern = new HashMap<>();
+		List<String> selected = new ArrayList<>();
+		List<char[][]> selectedCandidates = new ArrayList<>();
+
+		for (String word : cryptogramWords) {
+			if (!word.chars().allMatch(c -> c >= 'A' && c <= 'Z')) {
+				continue;
+			}
+			char[][] matching = byPattern.computeIfAbsent(CryptogramWords.pattern(word),
+					p -> toUpperCase(index.wordsWithPattern(p)));
+			if (matching.length > 0) {
+				selected.add(word);
+				selectedCandidates.add(matching);
+			}
+		}
+
+		Integer[] order = new Integer[selected.size()];
+		for (int i = 0; i < order.length; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, (a, b) -> selectedCandidates.get(a).length != selectedCandidates.get(b).length
+				? Integer.compare(selectedCandidates.get(a).length, selectedCandidates.get(b).length)
+				: Integer.compare(selected.get(b).length(), selected.get(a).length()));
+
+		int count = Math.min(maxWords, order.length);
+		this.words = new String[count];
+		this.candidates = new char[count][][];
+		for (int i = 0; i < count; i++) {
+			words[i] = selected.get(order[i]);
+			candidates[i] = selectedCandidates.get(order[i]);
+		}
+	}
+
+	/**
+	 * Convertit des mots du dictionnaire en tableaux de lettres majuscules.
+	 *
+	 * @param words des mots du dictionnaire
+	 * @return les lettres de chaque mot, en majuscules
+	 */
+	private static char[][] toUpperCase(List<String> words) {
+		char[][] result = new char[words.size()][];
+		for (int i = 0; i < result.length; i++) {
+			result[i] = words.get(i).toUpperCase().toCharArray();
+		}
+		return result;
+	}
+
+	/**
+	 * Explore les attributions possibles des mots restants.
+	 *
+	 * @param remaining les mots non encore déchiffrés (positions)
+	 * @param count     le nombre de mots restants
+	 * @param decoded   le nombre de mots déjà déchiffrés
+	 */
+	private void search(int[] remaining, int count, int decoded) {
+		if (++nodes > maxNodes) {
+			return;
+		}
+
+		// Mots entièrement déchiffrés, mots sans candidat et mot le plus contraint
+		int[] next = new int[count];
+		int nextCount = 0;
+		int chosen = -1;
+		int[] chosenCandidates = null;
+		for (int i = 0; i < count; i++) {
+			int word = remaining[i];
+			int[] compatible = compatibleCandidates(word);
+			if (compatible.length == 0) {
+				continue;
+			}
+			if (isFullyMapped(word)) {
+				decoded++;
+				continue;
+			}
+			next[nextCount++] = word;
+			if (chosenCandidates == null || compatible.length < chosenCandidates.length) {
+				chosen = word;
+				chosenCandidates = compatible;
+			}
+		}
+
+		if (decoded > bestDecoded) {
+			bestDecoded = decoded;
+			bestMapping = cipherToPlain.clone();
+		}
+		if (chosen < 0 || decoded + nextCount <= bestDecoded) {
+			return;
+		}
+
+		String word = words[chosen];
+		byte[] assigned = new byte[word.length()];
+		for (int candidate : chosenCandidates) {
+			int assignedCount = assign(word, candidates[chosen][candidate], assigned);
+			search(next, nextCount, decoded);
+			unassign(assigned, assignedCount);
+			if (nodes > maxNodes) {
+				return;
+			}
+		}
+
+		// Branche où le mot choisi reste non déchiffré
+		int skipCount = 0;
+		for (int i = 0; i < nextCount; i++) {
+			if (next[i] != chosen) {
+				next[skipCount++] = next[i];
+			}
+		}
+		search(next, skipCount, decoded);
+	}
+
+	/**
+	 * Retourne les candidats d'un mot compatibles avec les lettres attribuées,
+	 * en les mémorisant selon l'attribution courante des lettres du mot.
+	 *
+	 * @param word la position du mot
+	 * @return les positions des candidats compatibles
+	 */
+	private int[] compatibleCandidates(int word) {
+		String key = projection(words[word]);
+		int[] cached = memo.get(word).get(key);
+		if (cached != null) {
+			return cached;
+		}
+
+		char[] cipher = words[word].toCharArray();
+		int[] buffer = new int[candidates[word].length];
+		int count = 0;
+		for (int c = 0; c < candidates[word].length; c++) {
+			if (isCompatible(cipher, candidates[word][c])) {
+				buffer[count++] = c;
+			}
+		}
+
+		int[] result = Arrays.copyOf(buffer, count);
+		if (memoEntries >= MAX_MEMO_ENTRIES) {
+			memo.forEach(Map::clear);
+			memoEntries = 0;
+		}
+		memo.get(word).put(key, result);
+		memoEntries++;
+		return result;
+	}
+
+	/**
+	 * Construit la clé de mémorisation d'un mot : la lettre claire attribuée à
+	 * chacune de ses lettres ('.' si aucune). Les lettres claires déjà utilisées
+	 * par d'autres lettres chiffrées sont ajoutées, car elles interdisent
+	 * certains candidats.
+	 *
+	 * @param word un mot chiffré
+	 * @return la clé de mémorisation
+	 */
+	private String projection(String word) {
+		StringBuilder key = new StringBuilder(word.length() + 27);
+		int wordLetters = 0;
+		for (int i = 0; i < word.length(); i++) {
+			int c = word.charAt(i) - 'A';
+			wordLetters |= 1 << c;
+			key.append(cipherToPlain[c] < 0 ? '.' : (char) ('A' + cipherToPlain[c]));
+		}
+		key.append('|');
+		for (int p = 0; p < 26; p++) {
+			int c = plainToCipher[p];
+			if (c >= 0 && (wordLetters & (1 << c)) == 0) {
+				key.append((char) ('A' + p));
+			}
+		}
+		return key.toString();
+	}
+
+	private boolean isCompatible(char[] cipher, char[] plain) {
+		for (int i = 0; i < cipher.length; i++) {
+			int c = cipher[i] - 'A';
+			int p = plain[i] - 'A';
+			if (cipherToPlain[c] >= 0 ? cipherToPlain[c] != p : plainToCipher[p] >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private boolean isFullyMapped(int word) {
+		String cipher = words[word];
+		for (int i = 0; i < cipher.length(); i++) {
+			if (cipherToPlain[cipher.charAt(i) - 'A'] < 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Attribue les lettres d'un candidat aux lettres chiffrées d'un mot.
+	 *
+	 * @param cipher   le mot chiffré
+	 * @param plain    le candidat
+	 * @param assigned reçoit les lettres chiffrées nouvellement attribuées
+	 * @return le nombre de lettres nouvellement attribuées
+	 */
+	private int assign(String cipher, char[] plain, byte[] assigned) {
+		int count = 0;
+		for (int i = 0; i < plain.length; i++) {
+			int c = cipher.charAt(i) - 'A';
+			if (cipherToPlain[c] < 0) {
+				cipherToPlain[c] = (byte) (plain[i] - 'A');
+				plainToCipher[plain[i] - 'A'] = (byte) c;
+				assigned[count++] = (byte) c;
+			}
+		}
+		return count;
+	}
+
+	private void unassign(byte[] assigned, int count) {
+		for (int i = 0; i < count; i++) {
+			plainToCipher[cipherToPlain[assigned[i]]] = -1;
+			cipherToPlain[assigned[i]] = -1;
+		}
+	}
+
+	/**
+	 * Construit le résultat à partir de la meilleure attribution trouvée.
+	 *
+	 * @param exhaustive {@code true} si la recherche a été menée à son terme
+	 * @return le résultat de la recherche
+	 */
+	private Solution toSolution(boolean exhaustive) {
+		byte[] mapping = bestMapping == null ? cipherToPlain.clone() : bestMapping;
+		boolean[] used = new boolean[26];
+		for (byte p : mapping) {
+			if (p >= 0) {
+				used[p] = true;
+			}
+		}
+
+		char[] alphabet = new char[26];
+		StringBuilder undetermined = new StringBuilder();
+		int nextFree = 0;
+		for (int c = 0; c < 26; c++) {
+			if (mapping[c] >= 0) {
+				alphabet[c] = (char) ('A' + mapping[c]);
+			} else {
+				while (used[nextFree]) {
+					nextFree++;
+				}
+				used[nextFree] = true;
+				alphabet[c] = (char) ('A' + nextFree);
+				undetermined.append((char) ('A' + c));
+			}
+		}
+		return new Solution(new String(alphabet), undetermined.toString(), Math.max(0, bestDecoded), words.length,
+				exhaustive);
+	}
+}
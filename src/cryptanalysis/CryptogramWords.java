@@ -0,0 +1,172 @@
+package cryptanalysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Table des mots distincts d'un cryptogramme, avec leur nombre d'occurrences
+ * et leur motif.
+ *
+ * Le texte est découpé en un seul passage, sans expression régulière. Un mot
+ * est une suite de lettres (converties en majuscules) ; comme dans le
+ * dictionnaire, un tiret ou une apostrophe placé entre deux lettres fait
+ * partie du mot, sauf l'apostrophe qui suit une seule lettre (élision : l',
+ * d', j'...) et sépare deux mots. Seule cette règle, qui ne dépend pas des
+ * lettres elles-mêmes, reste valable sur un texte chiffré : les élisions plus
+ * longues (qu', jusqu'...) ne sont pas reconnaissables sous une substitution.
+ * Tout autre caractère sépare deux mots.
+ *
+ * Le motif d'un mot remplace chaque lettre par le rang de sa première
+ * apparition ('a', 'b', ...) et conserve tirets et apostrophes : deux mots se
+ * correspondent par une substitution si et seulement s'ils ont le même motif
+ * (ex. "ELLE" et "ALLA" ont le motif "abba").
+ */
+final class CryptogramWords {
+	private final List<String> words;
+	private final int[] counts;
+	private final String[] patterns;
+	private final int occurrences;
+
+	private CryptogramWords(List<String> words, int[] counts) {
+		this.words = Collections.unmodifiableList(words);
+		this.counts = counts;
+		this.patterns = new String[words.size()];
+		int total = 0;
+		for (int i = 0; i < words.size(); i++) {
+			patterns[i] = pattern(words.get(i));
+			total += counts[i];
+		}
+		this.occurrences = total;
+	}
+
+	/**
+	 * Découpe un texte en mots et compte leurs occurrences. Les mots distincts
+	 * sont triés par longueur décroissante puis par ordre alphabétique.
+	 *
+	 * @param text      le texte à découper
+	 * @param minLength la longueur minimale des mots retenus
+	 * @return la table des mots du texte
+	 */
+	static CryptogramWords tokenize(CharSequence text, int minLength) {
+		Map<String, int[]> occurrences = new HashMap<>();
+		char[] word = new char[64];
+		int length = 0;
+
+		for (int i = 0, n = text.length(); i <= n; i++) {
+			char c = i < n ? text.charAt(i) : ' ';
+			if (c >= 'A' && c <= 'Z' || c >= 'a' && c <= 'z') {
+				if (length == word.length) {
+					word = Arrays.copyOf(word, length * 2);
+				}
+				word[length++] = (char) (c & ~0x20);
+			} else if ((c == '-' || c == '\'') && length > 0 && isLetter(text, i + 1)
+					&& !(c == '\'' && length == 1)) {
+				if (length == word.length) {
+					word = Arrays.copyOf(word, length * 2);
+				}
+				word[length++] = c;
+			} else if (length > 0) {
+				if (length >= minLength) {
+					occurrences.computeIfAbsent(new String(word, 0, length), w -> new int[1])[0]++;
+				}
+				length = 0;
+			}
+		}
+
+		List<String> words = new ArrayList<>(occurrences.keySet());
+		words.sort(Comparator.comparingInt(String::length).reversed().thenComparing(Comparator.naturalOrder()));
+		int[] counts = new int[words.size()];
+		for (int i = 0; i < counts.length; i++) {
+			counts[i] = occurrences.get(words.get(i))[0];
+		}
+		return new CryptogramWords(words, counts);
+	}
+
+	/**
+	 * @return les mots distincts, par longueur décroissante puis par ordre
+	 *         alphabétique
+	 */
+	List<String> words() {
+		return words;
+	}
+
+	/**
+	 * @return le nombre de mots distincts
+	 */
+	int size() {
+		return words.size();
+	}
+
+	/**
+	 * @param i la position d'un mot
+	 * @return son nombre d'occurrences dans le texte
+	 */
+	int count(int i) {
+		return counts[i];
+	}
+
+	/**
+	 * @return les nombres d'occurrences, dans l'ordre des mots
+	 */
+	int[] counts() {
+		return counts.clone();
+	}
+
+	/**
+	 * @param i la position d'un mot
+	 * @return son motif
+	 */
+	String pattern(int i) {
+		return patterns[i];
+	}
+
+	/**
+	 * @return le nombre total d'occurrences des mots retenus
+	 */
+	int occurrences() {
+		return occurrences;
+	}
+
+	/**
+	 * Calcule le motif d'un mot, sans tenir compte de la casse.
+	 *
+	 * @param word un mot
+	 * @return son motif
+	 */
+	static String pattern(String word) {
+		char[] ranks = new char[26];
+		char next = 'a';
+		char[] result = new char[word.length()];
+		for (int i = 0; i < word.length(); i++) {
+			int letter = letterIndex(word.charAt(i));
+			if (letter < 0) {
+				result[i] = word.charAt(i);
+			} else {
+				if (ranks[letter] == 0) {
+					ranks[letter] = next++;
+				}
+				result[i] = ranks[letter];
+			}
+		}
+		return new String(result);
+	}
+
+	private static int letterIndex(char c) {
+		if (c >= 'A' && c <= 'Z') {
+			return c - 'A';
+		}
+		if (c >= 'a' && c <= 'z') {
+			return c - 'a';
+		}
+		return -1;
+	}
+
+	private static boolean isLetter(CharSequence text, int i) {
+		return i >= 0 && i < text.length() && letterIndex(text.charAt(i)) >= 0;
+	}
+}
@@ -1,5 +1,6 @@
 package cryptanalysis;
 
+import tree.DictionaryRegistry;
 import tree.LexicographicTree;
 
 import java.io.IOException;
@@ -8,7 +9,7 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
-import java.util.stream.Stream;
+import java.util.stream.IntStream;
 
 public class DictionaryBasedAnalysis {
 	private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
@@ -18,19 +19,43 @@ public class DictionaryBasedAnalysis {
 
 	private final String cryptogram;
 	private final LexicographicTree dict;
+	private final DictionaryIndex index;
+	private AnalysisListener listener = AnalysisListener.NONE;
 
 	/*
-	 * CONSTRUCTOR
+	 * CONSTRUCTORS
 	 */
 	public DictionaryBasedAnalysis(String cryptogram, LexicographicTree dict) {
+		this(cryptogram, dict, DictionaryIndex.of(dict));
+	}
+
+	/**
+	 * Crée une analyse utilisant un index donné du dictionnaire.
+	 *
+	 * @param cryptogram le cryptogramme
+	 * @param dict       le dictionnaire des mots valides
+	 * @param index      l'index du dictionnaire
+	 */
+	DictionaryBasedAnalysis(String cryptogram, LexicographicTree dict, DictionaryIndex index) {
 		this.cryptogram = cryptogram;
 		this.dict = dict;
+		this.index = index;
 	}
 
 	/*
 	 * PUBLIC METHODS
 	 */
 
+	/**
+	 * Sets the listener notified of the progress of the analyses. By default,
+	 * no listener is notified and nothing is printed.
+	 *
+	 * @param listener A listener, or null to remove the current one
+	 */
+	public void setListener(AnalysisListener listener) {
+		this.listener = listener == null ? AnalysisListener.NONE : listener;
+	}
+
 	/**
 	 * Performs a dictionary-based analysis of the cryptogram and returns an
 	 * approximated decoding alphabet.
@@ -39,128 +64,146 @@ public class DictionaryBasedAnalysis {
 	 * @return The decoding alphabet at the end of the analysis process
 	 */
 	public String guessApproximatedAlphabet(String alphabet) {
-		List<String> originalWords = new ArrayList<>(getCryptogramWordsByDescendingOrder());
-		String approxAlphabet = alphabet;
+		return guessApproximatedAlphabet(alphabet, 1);
+	}
+
+	/**
+	 * Performs a dictionary-based analysis of the cryptogram and returns an
+	 * approximated decoding alphabet. The score of an alphabet is the number of
+	 * word occurrences it decodes into dictionary words. For each cryptogram
+	 * word, up to 'candidatesPerWord' dictionary words with a compatible pattern
+	 * are tried: the resulting alphabets are scored in parallel and the best one
+	 * is kept (on a tie, the first candidate in alphabetic order wins, so that
+	 * runs are reproducible).
+	 *
+	 * @param alphabet          The decoding alphabet from which the analysis
+	 *                          starts
+	 * @param candidatesPerWord The maximum number of candidates tried for each
+	 *                          cryptogram word
+	 * @return The decoding alphabet at the end of the analysis process
+	 */
+	public String guessApproximatedAlphabet(String alphabet, int candidatesPerWord) {
+		CryptogramWords words = cryptogramWords();
+		List<String> originalWords = words.words();
+		SubstitutionAlphabet approxAlphabet = new SubstitutionAlphabet(alphabet);
 		int score = 0, bestScore = 0, wordLength = 0;
+		long candidatesEvaluated = 0, lookups = 0;
+		IncrementalScorer scorer = new IncrementalScorer(originalWords, words.counts(), dict, approxAlphabet);
+		char[] buffer = new char[originalWords.isEmpty() ? 0 : originalWords.get(0).length()];
 
-		Queue<String> queue = new LinkedList<>(originalWords);
-		String currentWord = queue.poll();
-		List<String> cache = new ArrayList<>();
-		while (currentWord != null) {
+		for (int w = 0; w < words.size(); w++) {
+			String currentWord = originalWords.get(w);
 			if (wordLength != currentWord.length()) {
-				System.out.println(">>> Words of length " + currentWord.length());
-				cache = dict.getWordsOfLength(currentWord.length());
+				listener.lengthStarted(currentWord.length());
 				wordLength = currentWord.length();
 			}
 
-			String invalidDecoded = applySubstitution(currentWord, approxAlphabet);
-			if (dict.containsWord(invalidDecoded.toLowerCase())) {
-				currentWord = queue.poll();
+			approxAlphabet.apply(currentWord, buffer);
+			lookups++;
+			if (dict.containsWordIgnoreCase(buffer, currentWord.length())) {
 				continue;
 			}
-			String potentialCandidate = findPotentialCandidate(invalidDecoded, cache);
+			String invalidDecoded = new String(buffer, 0, currentWord.length());
+			List<String> potentialCandidates = findPotentialCandidates(words.pattern(w), candidatesPerWord);
+			String potentialCandidate;
+			SubstitutionAlphabet newApproxAlphabet;
+
+			if (potentialCandidates.size() <= 1) {
+				potentialCandidate = potentialCandidates.isEmpty() ? "" : potentialCandidates.get(0);
+				newApproxAlphabet = getNewApproxAlphabet(approxAlphabet, invalidDecoded, potentialCandidate);
+				score = scorer.scoreWith(newApproxAlphabet);
+				candidatesEvaluated++;
+				listener.candidateTried(currentWord, potentialCandidate, score);
+			} else {
+				final SubstitutionAlphabet current = approxAlphabet;
+				List<SubstitutionAlphabet> newAlphabets = potentialCandidates.stream()
+						.map(candidate -> getNewApproxAlphabet(current, invalidDecoded, candidate))
+						.toList();
+				int[] scores = IntStream.range(0, newAlphabets.size())
+						.parallel()
+						.map(i -> scorer.peekScore(newAlphabets.get(i)))
+						.toArray();
 
-			String newApproxAlphabet = getNewApproxAlphabet(approxAlphabet, invalidDecoded, potentialCandidate);
-			for (String w : originalWords) {
-				if (dict.containsWord(applySubstitution(w, newApproxAlphabet).toLowerCase())) {
-					score++;
+				int best = 0;
+				for (int i = 0; i < scores.length; i++) {
+					listener.candidateTried(currentWord, potentialCandidates.get(i), scores[i]);
+					if (scores[i] > scores[best]) {
+						best = i;
+					}
 				}
+				candidatesEvaluated += scores.length;
+				potentialCandidate = potentialCandidates.get(best);
+				newApproxAlphabet = newAlphabets.get(best);
+				score = scores[best];
 			}
 
 			if (score > bestScore) {
 				bestScore = score;
-				System.out.printf("%-20s -> %s\n", "Cryptogram word", currentWord);
-				System.out.printf("%-20s -> %s\n", "Invalid decoded word", invalidDecoded);
-				System.out.printf("%-20s -> %s\n", "Candidate word", potentialCandidate);
-				System.out.println();
-				System.out.printf("%-20s -> %s\n", "Standard alphabet", alphabet);
-				System.out.printf("%-20s -> %s\n", "Approximated alphabet", approxAlphabet);
+				listener.scoreImproved(new AnalysisListener.Improvement(currentWord, invalidDecoded, potentialCandidate,
+						alphabet, approxAlphabet.toString(), newApproxAlphabet.toString(), words.occurrences(),
+						bestScore));
 				approxAlphabet = newApproxAlphabet;
-				System.out.printf("%-20s -> %s\n", "New approxim alphabet", newApproxAlphabet);
-				System.out.println();
-				System.out.printf("=> Score decoded : words = %d / valid = %d / invalid = %d\n", originalWords.size(),
-						bestScore, originalWords.size() - bestScore);
-				System.out.println();
+				scorer.accept(newApproxAlphabet);
 			}
 			score = 0;
-			currentWord = queue.poll();
 		}
-		return approxAlphabet;
+		listener.finished(approxAlphabet.toString(), candidatesEvaluated, lookups + scorer.lookups());
+		return approxAlphabet.toString();
 	}
 
 	/**
-	 * Applies an alphabet-specified substitution to a text.
+	 * Applies an alphabet-specified substitution to a text. Only the letters 'A'
+	 * to 'Z' are substituted; the other characters, lowercase and accented
+	 * letters included, are left unchanged. The alphabet is not checked: the
+	 * letters beyond its end are left unchanged too. Use
+	 * {@link SubstitutionAlphabet} to reject alphabets that are not
+	 * permutations.
 	 *
 	 * @param text     A text
 	 * @param alphabet A substitution alphabet
 	 * @return The substituted text
+	 * @see SubstitutionAlphabet#applyUnchecked(CharSequence, String)
 	 */
 	public static String applySubstitution(String text, String alphabet) {
-		StringBuilder substitutedText = new StringBuilder();
-
-		for (char c : text.toCharArray()) {
-			if (Character.isLetter(c)) {
-				substitutedText.append(alphabet.charAt(c - 'A'));
-			} else {
-				substitutedText.append(c);
-			}
-		}
-
-		return substitutedText.toString();
+		return SubstitutionAlphabet.applyUnchecked(text, alphabet);
 	}
 
 	/*
 	 * PRIVATE METHODS
 	 */
-	private List<String> getCryptogramWordsByDescendingOrder() {
-		return Stream.of(this.cryptogram.split("[\\s*]"))
-				.distinct()
-				.filter(w -> w.length() >= 3)
-				.sorted(Comparator.comparingInt(String::length)
-						.reversed()
-						.thenComparing(Comparator.naturalOrder()))
-				.toList();
+	List<String> getCryptogramWordsByDescendingOrder() {
+		return cryptogramWords().words();
 	}
 
-	protected static boolean comparePattern(String word1, String word2) {
-	    for (int i = 0; i < word1.length(); i++) {
-	        if (word1.indexOf(word1.substring(i, i + 1), i + 1) != word2.indexOf(word2.substring(i, i + 1), i + 1))
-	            return false;
-	    }
-	    return true;
+	CryptogramWords cryptogramWords() {
+		return CryptogramWords.tokenize(cryptogram, 3);
 	}
 
-	private String findPotentialCandidate(String word, List<String> candidates) {
-		for (String candidate : candidates) {
-			if (comparePattern(word, candidate)) {
-				return candidate.toUpperCase();
-			}
+	private List<String> findPotentialCandidates(String pattern, int maxCandidates) {
+		List<String> candidates = index.wordsWithPattern(pattern);
+		List<String> result = new ArrayList<>();
+		for (int i = 0; i < candidates.size() && i < maxCandidates; i++) {
+			result.add(candidates.get(i).toUpperCase());
 		}
-		return "";
+		return result;
 	}
 
-	private String getNewApproxAlphabet(String approxAlphabet, String invalidDecoded, String potentialCandidate) {
-		String result = approxAlphabet;
+	private SubstitutionAlphabet getNewApproxAlphabet(SubstitutionAlphabet approxAlphabet, String invalidDecoded,
+			String potentialCandidate) {
+		SubstitutionAlphabet result = new SubstitutionAlphabet(approxAlphabet);
 		for (int i = 0; i < potentialCandidate.length(); i++) {
-			result = swapLetters(result, invalidDecoded.charAt(i), potentialCandidate.charAt(i));
+			char letter1 = invalidDecoded.charAt(i);
+			char letter2 = potentialCandidate.charAt(i);
+			// les lettres absentes de l'alphabet (apostrophe, tiret) ne sont pas échangées
+			if (isAlphabetLetter(letter1) && isAlphabetLetter(letter2)) {
+				result.swapSubstitutes(letter1, letter2);
+			}
 		}
 		return result;
 	}
 
-	private String swapLetters(String alphabet, char letter1, char letter2) {
-	    int index1 = alphabet.indexOf(letter1);
-	    int index2 = alphabet.indexOf(letter2);
-
-	    if (index1 == -1 || index2 == -1 || letter1 == letter2) {
-	        // l'une des lettres n'est pas présente dans l'alphabet
-	        return alphabet;
-	    }
-
-	    char[] chars = alphabet.toCharArray();
-	    chars[index1] = letter2;
-	    chars[index2] = letter1;
-
-	    return new String(chars);
+	private static boolean isAlphabetLetter(char c) {
+		return c >= 'A' && c <= 'Z';
 	}
 
 	/**
@@ -207,7 +250,7 @@ public class DictionaryBasedAnalysis {
 		 * Load dictionary
 		 */
 		System.out.print("Loading dictionary... ");
-		LexicographicTree dict = new LexicographicTree(DICTIONARY);
+		LexicographicTree dict = DictionaryRegistry.shared().get(DICTIONARY);
 		System.out.println("done.");
 		System.out.println("Duration : " + (System.currentTimeMillis() - startTime) / 1000.0);
 		System.out.println("Number of words : " + dict.size());
@@ -225,6 +268,7 @@ public class DictionaryBasedAnalysis {
 		 * Decode cryptogram
 		 */
 		DictionaryBasedAnalysis dba = new DictionaryBasedAnalysis(cryptogram, dict);
+		dba.setListener(new ConsoleAnalysisListener());
 //		String startAlphabet = LETTERS;
 		String startAlphabet = "ZISHNFOBMAVQLPEUGWXTDYRJKC"; // Random alphabet
 		startTime = System.currentTimeMillis();
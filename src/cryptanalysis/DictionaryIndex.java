@@ -0,0 +1,190 @@
+package cryptanalysis;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import tree.LexicographicTree;
+import tree.TrieNode;
+
+/**
+ * Index des mots d'un dictionnaire utilisé par les analyses : les mots
+ * regroupés par longueur, puis par motif (voir {@link CryptogramWords}).
+ *
+ * Un seul index existe par dictionnaire ; il est partagé par toutes les
+ * analyses et peut être interrogé par plusieurs threads. Les mots par longueur
+ * sont obtenus en un seul parcours de l'arbre, lors de la première
+ * interrogation ; les groupes par motif d'une longueur sont construits à la
+ * première demande. Si des mots sont ajoutés au dictionnaire, l'index est
+ * reconstruit à l'interrogation suivante.
+ */
+public final class DictionaryIndex {
+	private static final Map<LexicographicTree, DictionaryIndex> INDEXES = Collections
+			.synchronizedMap(new WeakHashMap<>());
+
+	/*
+	 * Référence faible : l'index est la valeur associée au dictionnaire dans
+	 * INDEXES et ne doit pas empêcher sa libération.
+	 */
+	private final WeakReference<LexicographicTree> dict;
+	private volatile Snapshot snapshot;
+
+	/**
+	 * Contenu de l'index pour un état donné du dictionnaire.
+	 */
+	private static final class Snapshot {
+		private final int modificationCount;
+		private final String[][] wordsByLength;
+		private final Map<Integer, Map<String, List<String>>> wordsByPattern = new ConcurrentHashMap<>();
+
+		private Snapshot(int modificationCount, String[][] wordsByLength) {
+			this.modificationCount = modificationCount;
+			this.wordsByLength = wordsByLength;
+		}
+	}
+
+	private DictionaryIndex(LexicographicTree dict) {
+		this.dict = new WeakReference<>(dict);
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the index of a dictionary, created on the first call.
+	 *
+	 * @param dict A dictionary
+	 * @return The index shared by all analyses using this dictionary
+	 */
+	public static DictionaryIndex of(LexicographicTree dict) {
+		return INDEXES.computeIfAbsent(dict, DictionaryIndex::new);
+	}
+
+	/**
+	 * Returns the words of a given length, in alphabetic order.
+	 *
+	 * @param length Expected word length
+	 * @return An unmodifiable list of the words with the given length
+	 */
+	public List<String> wordsOfLength(int length) {
+		String[][] wordsByLength = snapshot().wordsByLength;
+		if (length <= 0 || length >= wordsByLength.length) {
+			return List.of();
+		}
+		return Collections.unmodifiableList(Arrays.asList(wordsByLength[length]));
+	}
+
+	/**
+	 * Returns the words having a given pattern, in alphabetic order. Two words
+	 * have the same pattern if one is the substitution of the other (e.g.
+	 * "elle" and "alla" have the pattern "abba").
+	 *
+	 * @param pattern A pattern, as computed for the cryptogram words
+	 * @return An unmodifiable list of the words having this pattern
+	 */
+	public List<String> wordsWithPattern(String pattern) {
+		Snapshot current = snapshot();
+		int length = pattern.length();
+		if (length == 0 || length >= current.wordsByLength.length) {
+			return List.of();
+		}
+		return current.wordsByPattern
+				.computeIfAbsent(length, l -> groupByPattern(current.wordsByLength[l]))
+				.getOrDefault(pattern, List.of());
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Retourne le contenu de l'index, reconstruit si le dictionnaire a changé
+	 * depuis sa construction.
+	 *
+	 * @return le contenu à jour de l'index
+	 */
+	private Snapshot snapshot() {
+		LexicographicTree tree = dict.get();
+		if (tree == null) {
+			throw new IllegalStateException("Dictionary no longer available");
+		}
+		Snapshot current = snapshot;
+		if (current == null || current.modificationCount != tree.modificationCount()) {
+			synchronized (this) {
+				current = snapshot;
+				if (current == null || current.modificationCount != tree.modificationCount()) {
+					current = new Snapshot(tree.modificationCount(), indexByLength(tree));
+					snapshot = current;
+				}
+			}
+		}
+		return current;
+	}
+
+	/**
+	 * Regroupe tous les mots du dictionnaire par longueur, en un seul parcours
+	 * de l'arbre.
+	 *
+	 * @param tree le dictionnaire
+	 * @return pour chaque longueur, les mots de cette longueur
+	 */
+	private static String[][] indexByLength(LexicographicTree tree) {
+		List<List<String>> words = new ArrayList<>();
+		for (int length = 0; length <= tree.maxWordLength(); length++) {
+			words.add(new ArrayList<>());
+		}
+		collectWords(tree.root(), new char[tree.maxWordLength()], 0, words);
+
+		String[][] result = new String[words.size()][];
+		for (int length = 0; length < result.length; length++) {
+			result[length] = words.get(length).toArray(new String[0]);
+		}
+		return result;
+	}
+
+	/**
+	 * Ajoute, de façon récursive, les mots d'un sous-arbre à la liste de leur
+	 * longueur.
+	 *
+	 * @param node   le noeud courant
+	 * @param word   les lettres menant au noeud courant
+	 * @param length le nombre de lettres menant au noeud courant
+	 * @param words  pour chaque longueur, les mots trouvés
+	 */
+	private static void collectWords(TrieNode node, char[] word, int length, List<List<String>> words) {
+		if (node.isEndWord() && length > 0) {
+			words.get(length).add(new String(word, 0, length));
+		}
+		for (int i = 0; i < 28; i++) {
+			TrieNode child = node.getChildren(i);
+			if (child != null) {
+				word[length] = child.getLetter();
+				collectWords(child, word, length + 1, words);
+			}
+		}
+	}
+
+	/**
+	 * Regroupe des mots par motif, en conservant leur ordre.
+	 *
+	 * @param words des mots de même longueur
+	 * @return les mots regroupés par motif
+	 */
+	private static Map<String, List<String>> groupByPattern(String[] words) {
+		Map<String, List<String>> groups = new LinkedHashMap<>();
+		for (String word : words) {
+			groups.computeIfAbsent(CryptogramWords.pattern(word), p -> new ArrayList<>()).add(word);
+		}
+		Map<String, List<String>> result = new HashMap<>();
+		groups.forEach((pattern, group) -> result.put(pattern, List.copyOf(group)));
+		return result;
+	}
+}
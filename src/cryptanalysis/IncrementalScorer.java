@@ -0,0 +1,255 @@
+package cryptanalysis;
+
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import tree.LexicographicTree;
+
+/**
+ * Calcul incrémental du score d'un alphabet de déchiffrement, c'est-à-dire du
+ * nombre de mots du cryptogramme déchiffrés en mots du dictionnaire. Chaque
+ * mot distinct peut être pondéré, par exemple par son nombre d'occurrences :
+ * il n'est vérifié qu'une fois mais compte autant de fois que son poids.
+ *
+ * La validité de chaque mot sous l'alphabet courant est conservée, et les mots
+ * sont indexés par les lettres chiffrées qu'ils contiennent. Lorsqu'un
+ * alphabet candidat ne diffère de l'alphabet courant que par quelques lettres,
+ * seuls les mots contenant ces lettres sont vérifiés à nouveau.
+ */
+final class IncrementalScorer {
+	private final List<String> words;
+	private final int[] weights;
+	private final LexicographicTree dict;
+	private final int[][] wordsByLetter;
+	private final boolean[] valid;
+	private SubstitutionAlphabet alphabet;
+	private final char[] buffer;
+	private int score;
+	private final LongAdder lookups = new LongAdder();
+
+	/*
+	 * Dernier candidat évalué, conservé pour être accepté sans nouvelle
+	 * vérification.
+	 */
+	private final int[] stamps;
+	private int stamp = 0;
+	private SubstitutionAlphabet pendingAlphabet = null;
+	private int pendingScore;
+	private final int[] pendingWords;
+	private final boolean[] pendingValid;
+	private int pendingCount;
+
+	/**
+	 * Crée un calculateur de score pour une liste de mots chiffrés, chaque mot
+	 * comptant pour un.
+	 *
+	 * @param words    les mots (distincts) du cryptogramme
+	 * @param dict     le dictionnaire des mots valides
+	 * @param alphabet l'alphabet de déchiffrement courant
+	 */
+	IncrementalScorer(List<String> words, LexicographicTree dict, SubstitutionAlphabet alphabet) {
+		this(words, null, dict, alphabet);
+	}
+
+	/**
+	 * Crée un calculateur de score pour une liste de mots chiffrés pondérés.
+	 *
+	 * @param words    les mots (distincts) du cryptogramme
+	 * @param weights  le poids de chaque mot, ou null pour un poids de un
+	 * @param dict     le dictionnaire des mots valides
+	 * @param alphabet l'alphabet de déchiffrement courant
+	 */
+	IncrementalScorer(List<String> words, int[] weights, LexicographicTree dict, SubstitutionAlphabet alphabet) {
+		this.words = words;
+		this.weights = weights;
+		this.dict = dict;
+		this.valid = new boolean[words.size()];
+		this.stamps = new int[words.size()];
+		this.pendingWords = new int[words.size()];
+		this.pendingValid = new boolean[words.size()];
+		this.wordsByLetter = indexWordsByLetter(words);
+		this.alphabet = new SubstitutionAlphabet(alphabet);
+		this.buffer = new char[maxLength(words)];
+
+		for (int i = 0; i < words.size(); i++) {
+			valid[i] = isValid(words.get(i), alphabet, buffer);
+			if (valid[i]) {
+				score += weight(i);
+			}
+		}
+	}
+
+	/**
+	 * @return le score de l'alphabet courant
+	 */
+	int score() {
+		return score;
+	}
+
+	/**
+	 * @return le nombre de recherches effectuées dans le dictionnaire
+	 */
+	long lookups() {
+		return lookups.sum();
+	}
+
+	/**
+	 * Retourne le score qu'aurait un autre alphabet, en ne vérifiant que les
+	 * mots contenant une lettre chiffrée dont le déchiffrement change.
+	 *
+	 * @param newAlphabet l'alphabet candidat
+	 * @return le score de l'alphabet candidat
+	 */
+	int scoreWith(SubstitutionAlphabet newAlphabet) {
+		stamp++;
+		pendingAlphabet = new SubstitutionAlphabet(newAlphabet);
+		pendingScore = score;
+		pendingCount = 0;
+
+		for (char letter = 'A'; letter <= 'Z'; letter++) {
+			if (alphabet.substitute(letter) == newAlphabet.substitute(letter)) {
+				continue;
+			}
+			for (int word : wordsByLetter[letter - 'A']) {
+				if (stamps[word] == stamp) {
+					continue;
+				}
+				stamps[word] = stamp;
+
+				boolean newValid = isValid(words.get(word), newAlphabet, buffer);
+				if (newValid != valid[word]) {
+					pendingScore += newValid ? weight(word) : -weight(word);
+				}
+				pendingWords[pendingCount] = word;
+				pendingValid[pendingCount] = newValid;
+				pendingCount++;
+			}
+		}
+		return pendingScore;
+	}
+
+	/**
+	 * Retourne le score qu'aurait un autre alphabet, sans modifier l'état du
+	 * calculateur : plusieurs threads peuvent évaluer des candidats en parallèle
+	 * tant que l'alphabet courant ne change pas.
+	 *
+	 * @param newAlphabet l'alphabet candidat
+	 * @return le score de l'alphabet candidat
+	 */
+	int peekScore(SubstitutionAlphabet newAlphabet) {
+		boolean[] checked = new boolean[words.size()];
+		char[] localBuffer = new char[buffer.length];
+		int result = score;
+
+		for (char letter = 'A'; letter <= 'Z'; letter++) {
+			if (alphabet.substitute(letter) == newAlphabet.substitute(letter)) {
+				continue;
+			}
+			for (int word : wordsByLetter[letter - 'A']) {
+				if (!checked[word]) {
+					checked[word] = true;
+					boolean newValid = isValid(words.get(word), newAlphabet, localBuffer);
+					if (newValid != valid[word]) {
+						result += newValid ? weight(word) : -weight(word);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Remplace l'alphabet courant par un nouvel alphabet.
+	 *
+	 * @param newAlphabet le nouvel alphabet
+	 */
+	void accept(SubstitutionAlphabet newAlphabet) {
+		if (!newAlphabet.equals(pendingAlphabet)) {
+			scoreWith(newAlphabet);
+		}
+		for (int i = 0; i < pendingCount; i++) {
+			valid[pendingWords[i]] = pendingValid[i];
+		}
+		alphabet = new SubstitutionAlphabet(newAlphabet);
+		score = pendingScore;
+		pendingAlphabet = null;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	private int weight(int word) {
+		return weights == null ? 1 : weights[word];
+	}
+
+	/**
+	 * Indexe les mots par lettre chiffrée : pour chaque lettre, la liste des
+	 * mots la contenant.
+	 *
+	 * @param words les mots du cryptogramme
+	 * @return pour chaque lettre, les positions des mots la contenant
+	 */
+	private static int[][] indexWordsByLetter(List<String> words) {
+		int[] counts = new int[26];
+		int[] masks = new int[words.size()];
+		for (int i = 0; i < words.size(); i++) {
+			String word = words.get(i);
+			for (int j = 0; j < word.length(); j++) {
+				char c = word.charAt(j);
+				if (c >= 'A' && c <= 'Z') {
+					masks[i] |= 1 << (c - 'A');
+				}
+			}
+			for (int letter = 0; letter < 26; letter++) {
+				if ((masks[i] & (1 << letter)) != 0) {
+					counts[letter]++;
+				}
+			}
+		}
+
+		int[][] result = new int[26][];
+		for (int letter = 0; letter < 26; letter++) {
+			result[letter] = new int[counts[letter]];
+			counts[letter] = 0;
+		}
+		for (int i = 0; i < words.size(); i++) {
+			for (int letter = 0; letter < 26; letter++) {
+				if ((masks[i] & (1 << letter)) != 0) {
+					result[letter][counts[letter]++] = i;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Retourne la longueur du plus long mot d'une liste.
+	 *
+	 * @param words une liste de mots
+	 * @return la longueur du plus long mot
+	 */
+	private static int maxLength(List<String> words) {
+		int result = 0;
+		for (String word : words) {
+			result = Math.max(result, word.length());
+		}
+		return result;
+	}
+
+	/**
+	 * Vérifie si un mot chiffré se déchiffre en un mot du dictionnaire. Le mot
+	 * est déchiffré dans un tampon réutilisé, sans créer de chaîne.
+	 *
+	 * @param word     le mot chiffré
+	 * @param alphabet l'alphabet de déchiffrement
+	 * @param buffer   le tampon recevant le mot déchiffré
+	 * @return la valeur {@code true} si le mot déchiffré est valide,
+	 *         {@code false} sinon
+	 */
+	private boolean isValid(String word, SubstitutionAlphabet alphabet, char[] buffer) {
+		alphabet.apply(word, buffer);
+		lookups.increment();
+		return dict.containsWordIgnoreCase(buffer, word.length());
+	}
+}
@@ -0,0 +1,326 @@
+package cryptanalysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import tree.LexicographicTree;
+
+/**
+ * Analyse d'un cryptogramme par recuit simulé, guidée par les statistiques des
+ * quadrigrammes de la langue.
+ *
+ * Le cryptogramme est réduit une fois pour toutes à la liste de ses
+ * quadrigrammes distincts (lettres chiffrées de 0 à 25 regroupées dans un
+ * entier) et de leur nombre d'occurrences. Evaluer un alphabet revient alors
+ * à parcourir deux tableaux d'entiers et la table des log-probabilités, sans
+ * déchiffrer le texte ; lors d'un échange de deux lettres, seuls les
+ * quadrigrammes contenant l'une de ces lettres sont réévalués. Plusieurs
+ * recuits indépendants s'exécutent en parallèle ; le meilleur alphabet obtenu
+ * est ensuite affiné à l'aide du dictionnaire.
+ */
+public final class QuadgramAnalysis {
+	/**
+	 * Nombre maximal de lettres du cryptogramme utilisées pour l'évaluation :
+	 * au-delà, les fréquences des quadrigrammes ne changent plus guère.
+	 */
+	private static final int SAMPLE_LENGTH = 2000;
+	private static final double INITIAL_TEMPERATURE = 20.0;
+
+	private final String cryptogram;
+	private final LexicographicTree dict;
+	private final float[] table;
+	private final int[] quadgrams;
+	private final int[] counts;
+	private final int[][] quadgramsByLetter;
+
+	/*
+	 * CONSTRUCTOR
+	 */
+
+	/**
+	 * Constructor : prepares the analysis of a cryptogram.
+	 *
+	 * @param cryptogram A text encoded with a substitution alphabet
+	 * @param dict       A dictionary used to polish the final alphabet
+	 * @param statistics The quadgram statistics of the language of the text
+	 */
+	public QuadgramAnalysis(String cryptogram, LexicographicTree dict, QuadgramStatistics statistics) {
+		this.cryptogram = cryptogram;
+		this.dict = dict;
+		this.table = statistics.table();
+
+		byte[] letters = QuadgramStatistics.toLetters(cryptogram);
+		int length = Math.min(letters.length, SAMPLE_LENGTH);
+		int[] occurrences = new int[QuadgramStatistics.QUADGRAMS];
+		int distinct = 0;
+		for (int i = 0; i + 4 <= length; i++) {
+			int index = ((letters[i] * 26 + letters[i + 1]) * 26 + letters[i + 2]) * 26 + letters[i + 3];
+			if (occurrences[index]++ == 0) {
+				distinct++;
+			}
+		}
+
+		this.quadgrams = new int[distinct];
+		this.counts = new int[distinct];
+		for (int index = 0, i = 0; index < occurrences.length; index++) {
+			if (occurrences[index] > 0) {
+				int d = index % 26, c = index / 26 % 26, b = index / 676 % 26, a = index / 17576;
+				quadgrams[i] = a << 15 | b << 10 | c << 5 | d;
+				counts[i++] = occurrences[index];
+			}
+		}
+		this.quadgramsByLetter = indexQuadgramsByLetter(quadgrams);
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Searches the decoding alphabet with several independent simulated
+	 * annealing runs executed in parallel, then polishes the best alphabet with
+	 * the dictionary. The result only depends on the seed.
+	 *
+	 * @param seed       The seed from which each run seed is derived
+	 * @param restarts   The number of independent runs
+	 * @param iterations The number of iterations of each run
+	 * @return The decoding alphabet at the end of the analysis process
+	 * @throws IllegalArgumentException If restarts is lower than 1 or
+	 *                                  iterations is negative
+	 */
+	public String guessAlphabet(long seed, int restarts, int iterations) {
+		if (restarts < 1) {
+			throw new IllegalArgumentException("Invalid number of restarts : " + restarts);
+		}
+		if (iterations < 0) {
+			throw new IllegalArgumentException("Invalid number of iterations : " + iterations);
+		}
+		SplittableRandom seeds = new SplittableRandom(seed);
+		ExecutorService executor = Executors.newFixedThreadPool(
+				Math.min(restarts, Runtime.getRuntime().availableProcessors()));
+		try {
+			List<Future<byte[]>> runs = new ArrayList<>();
+			for (int i = 0; i < restarts; i++) {
+				SplittableRandom random = seeds.split();
+				runs.add(executor.submit(() -> anneal(random, iterations)));
+			}
+
+			// En cas d'égalité, le premier recuit l'emporte
+			byte[] bestKey = null;
+			double bestFitness = Double.NEGATIVE_INFINITY;
+			for (Future<byte[]> run : runs) {
+				byte[] key = run.get();
+				double fitness = fitness(key);
+				if (fitness > bestFitness) {
+					bestFitness = fitness;
+					bestKey = key;
+				}
+			}
+			return polish(toAlphabet(bestKey)).toString();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Analysis interrupted", e);
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Analysis failed", e.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Returns the quadgram fitness of a decoding alphabet: the sum of the
+	 * log-probabilities of the decoded quadgrams.
+	 *
+	 * @param alphabet A decoding alphabet
+	 * @return The fitness of the alphabet, higher is better
+	 */
+	public double fitness(String alphabet) {
+		byte[] key = new byte[26];
+		for (int i = 0; i < 26; i++) {
+			key[i] = (byte) (alphabet.charAt(i) - 'A');
+		}
+		return fitness(key);
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Evalue une clé de déchiffrement (lettre chiffrée vers lettre claire).
+	 *
+	 * @param key la clé, indexée par lettre chiffrée (0 à 25)
+	 * @return la somme des log-probabilités des quadrigrammes déchiffrés
+	 */
+	private double fitness(byte[] key) {
+		double result = 0;
+		for (int q = 0; q < quadgrams.length; q++) {
+			result += contribution(q, key);
+		}
+		return result;
+	}
+
+	/**
+	 * Exécute un recuit simulé depuis une clé aléatoire : à chaque itération,
+	 * deux lettres de la clé sont échangées et l'échange est conservé ou
+	 * annulé.
+	 *
+	 * @param random     le générateur aléatoire du recuit
+	 * @param iterations le nombre d'itérations
+	 * @return la meilleure clé rencontrée
+	 */
+	private byte[] anneal(SplittableRandom random, int iterations) {
+		byte[] key = new byte[26];
+		for (int i = 0; i < 26; i++) {
+			key[i] = (byte) i;
+		}
+		for (int i = 25; i > 0; i--) {
+			swap(key, i, random.nextInt(i + 1));
+		}
+
+		double[] contributions = new double[quadgrams.length];
+		double current = 0;
+		for (int q = 0; q < quadgrams.length; q++) {
+			contributions[q] = contribution(q, key);
+			current += contributions[q];
+		}
+		double best = current;
+		byte[] bestKey = key.clone();
+
+		int[] changed = new int[quadgrams.length];
+		double[] changedValues = new double[quadgrams.length];
+		for (int iteration = 0; iteration < iterations; iteration++) {
+			int i = random.nextInt(26);
+			int j = random.nextInt(25);
+			if (j >= i) {
+				j++;
+			}
+			swap(key, i, j);
+
+			// Seuls les quadrigrammes contenant les lettres chiffrées i ou j changent
+			int changedCount = 0;
+			double delta = 0;
+			for (int q : quadgramsByLetter[i]) {
+				changed[changedCount] = q;
+				changedValues[changedCount] = contribution(q, key);
+				delta += changedValues[changedCount++] - contributions[q];
+			}
+			for (int q : quadgramsByLetter[j]) {
+				if (!contains(quadgrams[q], i)) {
+					changed[changedCount] = q;
+					changedValues[changedCount] = contribution(q, key);
+					delta += changedValues[changedCount++] - contributions[q];
+				}
+			}
+
+			double temperature = INITIAL_TEMPERATURE * (1 - (double) iteration / iterations);
+			if (delta >= 0 || (temperature > 0 && random.nextDouble() < Math.exp(delta / temperature))) {
+				current += delta;
+				for (int k = 0; k < changedCount; k++) {
+					contributions[changed[k]] = changedValues[k];
+				}
+				if (current > best) {
+					best = current;
+					bestKey = key.clone();
+				}
+			} else {
+				swap(key, i, j);
+			}
+		}
+		return bestKey;
+	}
+
+	/**
+	 * Calcule la contribution d'un quadrigramme du cryptogramme à l'évaluation
+	 * d'une clé.
+	 *
+	 * @param q   la position du quadrigramme
+	 * @param key la clé, indexée par lettre chiffrée (0 à 25)
+	 * @return le nombre d'occurrences multiplié par la log-probabilité du
+	 *         quadrigramme déchiffré
+	 */
+	private double contribution(int q, byte[] key) {
+		int quadgram = quadgrams[q];
+		int index = ((key[quadgram >>> 15] * 26 + key[quadgram >>> 10 & 31]) * 26 + key[quadgram >>> 5 & 31]) * 26
+				+ key[quadgram & 31];
+		return counts[q] * table[index];
+	}
+
+	/**
+	 * Indexe les quadrigrammes par lettre chiffrée : pour chaque lettre, la
+	 * liste des quadrigrammes la contenant.
+	 *
+	 * @param quadgrams les quadrigrammes (4 lettres de 5 bits)
+	 * @return pour chaque lettre, les positions des quadrigrammes la contenant
+	 */
+	private static int[][] indexQuadgramsByLetter(int[] quadgrams) {
+		int[][] result = new int[26][];
+		int[] buffer = new int[quadgrams.length];
+		for (int letter = 0; letter < 26; letter++) {
+			int count = 0;
+			for (int q = 0; q < quadgrams.length; q++) {
+				if (contains(quadgrams[q], letter)) {
+					buffer[count++] = q;
+				}
+			}
+			result[letter] = Arrays.copyOf(buffer, count);
+		}
+		return result;
+	}
+
+	private static boolean contains(int quadgram, int letter) {
+		return (quadgram >>> 15) == letter || (quadgram >>> 10 & 31) == letter || (quadgram >>> 5 & 31) == letter
+				|| (quadgram & 31) == letter;
+	}
+
+	/**
+	 * Affine un alphabet à l'aide du dictionnaire : tant qu'un échange de deux
+	 * lettres augmente le nombre de mots valides du texte déchiffré, il est
+	 * conservé.
+	 *
+	 * @param alphabet l'alphabet à affiner
+	 * @return l'alphabet affiné
+	 */
+	private SubstitutionAlphabet polish(SubstitutionAlphabet alphabet) {
+		List<String> words = new DictionaryBasedAnalysis(cryptogram, dict).getCryptogramWordsByDescendingOrder();
+		IncrementalScorer scorer = new IncrementalScorer(words, dict, alphabet);
+		SubstitutionAlphabet current = alphabet;
+
+		boolean improved = true;
+		while (improved) {
+			improved = false;
+			for (char a = 'A'; a <= 'Z'; a++) {
+				for (char b = (char) (a + 1); b <= 'Z'; b++) {
+					SubstitutionAlphabet candidate = new SubstitutionAlphabet(current);
+					candidate.swapSubstitutes(a, b);
+					if (scorer.scoreWith(candidate) > scorer.score()) {
+						scorer.accept(candidate);
+						current = candidate;
+						improved = true;
+					}
+				}
+			}
+		}
+		return current;
+	}
+
+	private static SubstitutionAlphabet toAlphabet(byte[] key) {
+		char[] letters = new char[26];
+		for (int i = 0; i < 26; i++) {
+			letters[i] = (char) ('A' + key[i]);
+		}
+		return new SubstitutionAlphabet(new String(letters));
+	}
+
+	private static void swap(byte[] key, int i, int j) {
+		byte tmp = key[i];
+		key[i] = key[j];
+		key[j] = tmp;
+	}
+}
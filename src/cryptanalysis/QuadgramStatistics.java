@@ -0,0 +1,139 @@
+package cryptanalysis;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+
+import tree.LexicographicTree;
+
+/**
+ * Statistiques des quadrigrammes (suites de 4 lettres) d'une langue, exprimées
+ * en logarithme de leur probabilité et indexées par entier : le quadrigramme
+ * formé des lettres a, b, c et d (0 à 25) se trouve à la position
+ * ((a * 26 + b) * 26 + c) * 26 + d.
+ *
+ * Les statistiques sont construites à partir d'un corpus (les accents sont
+ * supprimés et seules les lettres sont conservées) et, optionnellement, des
+ * mots d'un dictionnaire. Une instance est immuable et peut être partagée par
+ * plusieurs analyses.
+ */
+public final class QuadgramStatistics {
+	static final int QUADGRAMS = 26 * 26 * 26 * 26;
+
+	private final float[] logProbabilities = new float[QUADGRAMS];
+	private final long total;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructor : computes the quadgram statistics of a corpus.
+	 *
+	 * @param corpus A text written in the expected language
+	 */
+	public QuadgramStatistics(String corpus) {
+		this(corpus, null);
+	}
+
+	/**
+	 * Constructor : computes the quadgram statistics of a corpus and of the
+	 * words of a dictionary (each word counting once).
+	 *
+	 * @param corpus A text written in the expected language
+	 * @param dict   A dictionary, or null
+	 */
+	public QuadgramStatistics(String corpus, LexicographicTree dict) {
+		long[] counts = new long[QUADGRAMS];
+		long count = countQuadgrams(toLetters(corpus), counts);
+		if (dict != null) {
+			for (String word : dict.getWords("")) {
+				count += countQuadgrams(toLetters(word), counts);
+			}
+		}
+		this.total = count;
+
+		// Les quadrigrammes absents reçoivent une probabilité plancher
+		double floor = Math.log10(0.01 / Math.max(1, total));
+		for (int i = 0; i < QUADGRAMS; i++) {
+			logProbabilities[i] = (float) (counts[i] == 0 ? floor : Math.log10((double) counts[i] / total));
+		}
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the number of quadgrams the statistics were computed from.
+	 *
+	 * @return The number of quadgrams read
+	 */
+	public long total() {
+		return total;
+	}
+
+	/**
+	 * Returns the log-probability of a quadgram.
+	 *
+	 * @param quadgram A quadgram of uppercase letters
+	 * @return The base-10 logarithm of its probability
+	 */
+	public float logProbability(String quadgram) {
+		int index = 0;
+		for (int i = 0; i < 4; i++) {
+			index = index * 26 + (quadgram.charAt(i) - 'A');
+		}
+		return logProbabilities[index];
+	}
+
+	/*
+	 * PACKAGE METHODS
+	 */
+
+	/**
+	 * @return la table des log-probabilités, indexée par quadrigramme
+	 */
+	float[] table() {
+		return logProbabilities;
+	}
+
+	/**
+	 * Convertit un texte en suite de lettres (0 à 25) : les accents sont
+	 * supprimés, les minuscules converties et les autres caractères ignorés.
+	 *
+	 * @param text un texte
+	 * @return les lettres du texte
+	 */
+	static byte[] toLetters(String text) {
+		String normalized = Normalizer.normalize(text, Normalizer.Form.NFD);
+		byte[] letters = new byte[normalized.length()];
+		int length = 0;
+		for (int i = 0; i < normalized.length(); i++) {
+			char c = normalized.charAt(i);
+			if (c >= 'a' && c <= 'z') {
+				letters[length++] = (byte) (c - 'a');
+			} else if (c >= 'A' && c <= 'Z') {
+				letters[length++] = (byte) (c - 'A');
+			}
+		}
+		return Arrays.copyOf(letters, length);
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Compte les quadrigrammes d'une suite de lettres.
+	 *
+	 * @param letters une suite de lettres (0 à 25)
+	 * @param counts  les compteurs à incrémenter
+	 * @return le nombre de quadrigrammes lus
+	 */
+	private static long countQuadgrams(byte[] letters, long[] counts) {
+		for (int i = 0; i + 4 <= letters.length; i++) {
+			counts[((letters[i] * 26 + letters[i + 1]) * 26 + letters[i + 2]) * 26 + letters[i + 3]]++;
+		}
+		return Math.max(0, letters.length - 3);
+	}
+}
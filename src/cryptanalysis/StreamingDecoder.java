@@ -0,0 +1,179 @@
+package cryptanalysis;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Déchiffrement d'un fichier de taille quelconque par blocs d'octets, sans
+ * charger le texte en mémoire.
+ *
+ * La substitution ne concerne que les octets 'A' à 'Z' : en UTF-8, les octets
+ * d'un caractère non ASCII sont tous supérieurs à 0x7F et ne sont donc jamais
+ * modifiés, quel que soit l'endroit où un bloc est coupé. Chaque bloc est lu
+ * puis écrit à la même position dans le fichier de sortie, ce qui permet de
+ * traiter les blocs en parallèle tout en conservant leur ordre. La mémoire
+ * utilisée se limite à un tampon par thread.
+ */
+public final class StreamingDecoder {
+	private static final int DEFAULT_CHUNK_SIZE = 1 << 20;
+
+	private final byte[] table = new byte[256];
+	private final int chunkSize;
+	private final int parallelism;
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructor : creates a decoder using 1 MB chunks and one thread per
+	 * processor.
+	 *
+	 * @param alphabet A substitution alphabet
+	 */
+	public StreamingDecoder(SubstitutionAlphabet alphabet) {
+		this(alphabet, DEFAULT_CHUNK_SIZE, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor : creates a decoder.
+	 *
+	 * @param alphabet    A substitution alphabet
+	 * @param chunkSize   The size in bytes of the chunks read and written
+	 * @param parallelism The number of chunks processed simultaneously
+	 */
+	public StreamingDecoder(SubstitutionAlphabet alphabet, int chunkSize, int parallelism) {
+		if (chunkSize <= 0 || parallelism <= 0) {
+			throw new IllegalArgumentException("Invalid chunk size or parallelism");
+		}
+		this.chunkSize = chunkSize;
+		this.parallelism = parallelism;
+
+		for (int i = 0; i < 256; i++) {
+			table[i] = (byte) i;
+		}
+		for (char c = 'A'; c <= 'Z'; c++) {
+			table[c] = (byte) alphabet.substitute(c);
+		}
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Applies the substitution to a file and writes the result to another file
+	 * (created or replaced).
+	 *
+	 * @param input  The file to read
+	 * @param output The file to write
+	 * @return The number of bytes processed
+	 * @throws IOException              If a file cannot be read or written
+	 * @throws IllegalArgumentException If both paths name the same file
+	 */
+	public long decode(Path input, Path output) throws IOException {
+		// Le fichier de sortie est tronqué avant la lecture : il ne doit pas être l'entrée
+		if (Files.exists(output) && Files.isSameFile(input, output)) {
+			throw new IllegalArgumentException("Input and output are the same file : " + input);
+		}
+		try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+				FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+						StandardOpenOption.TRUNCATE_EXISTING)) {
+			long size = in.size();
+			long chunks = (size + chunkSize - 1) / chunkSize;
+			AtomicLong nextChunk = new AtomicLong();
+
+			int threads = (int) Math.max(1, Math.min(parallelism, chunks));
+			if (threads == 1) {
+				decodeChunks(in, out, size, nextChunk);
+				return size;
+			}
+
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				List<Future<Void>> workers = new ArrayList<>();
+				for (int i = 0; i < threads; i++) {
+					workers.add(executor.submit(() -> {
+						decodeChunks(in, out, size, nextChunk);
+						return null;
+					}));
+				}
+				for (Future<Void> worker : workers) {
+					worker.get();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException("Decoding interrupted", e);
+			} catch (ExecutionException e) {
+				if (e.getCause() instanceof IOException cause) {
+					throw cause;
+				}
+				throw new IOException("Decoding failed", e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+			return size;
+		}
+	}
+
+	/**
+	 * Applies the substitution to a chunk of bytes, in place.
+	 *
+	 * @param bytes  A buffer
+	 * @param length The number of bytes to process
+	 */
+	public void decode(byte[] bytes, int length) {
+		for (int i = 0; i < length; i++) {
+			bytes[i] = table[bytes[i] & 0xFF];
+		}
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Traite les blocs restants jusqu'à ce qu'il n'y en ait plus : chaque bloc
+	 * est lu, déchiffré puis écrit à la même position.
+	 *
+	 * @param in        le fichier lu
+	 * @param out       le fichier écrit
+	 * @param size      la taille du fichier lu
+	 * @param nextChunk le numéro du prochain bloc à traiter, partagé entre les
+	 *                  threads
+	 * @throws IOException si un fichier ne peut pas être lu ou écrit
+	 */
+	private void decodeChunks(FileChannel in, FileChannel out, long size, AtomicLong nextChunk) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(chunkSize);
+		long chunk;
+		while ((chunk = nextChunk.getAndIncrement()) * chunkSize < size) {
+			long position = chunk * chunkSize;
+			int length = (int) Math.min(chunkSize, size - position);
+
+			buffer.clear().limit(length);
+			while (buffer.hasRemaining()) {
+				if (in.read(buffer, position + buffer.position()) < 0) {
+					throw new IOException("Unexpected end of file at " + (position + buffer.position()));
+				}
+			}
+
+			decode(buffer.array(), length);
+
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				out.write(buffer, position + buffer.position());
+			}
+		}
+	}
+}
@@ -0,0 +1,185 @@
+package cryptanalysis;
+
+import java.util.Arrays;
+
+/**
+ * Alphabet de substitution mutable, représenté par une permutation des 26
+ * lettres : pour chaque lettre, sa lettre de substitution, et réciproquement
+ * la position de chaque lettre de substitution. L'échange de deux lettres et
+ * la recherche inverse se font en temps constant, sans allocation.
+ */
+public final class SubstitutionAlphabet {
+	private static final int SIZE = 26;
+
+	private final char[] plain = new char[SIZE];
+	private final byte[] cipher = new byte[SIZE];
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructor : creates a substitution alphabet from its textual form.
+	 *
+	 * @param alphabet A permutation of the 26 uppercase letters, the letter at
+	 *                 index i being the substitute of the i-th letter
+	 */
+	public SubstitutionAlphabet(String alphabet) {
+		if (alphabet.length() != SIZE) {
+			throw new IllegalArgumentException("Invalid alphabet length : " + alphabet);
+		}
+		Arrays.fill(cipher, (byte) -1);
+		for (int i = 0; i < SIZE; i++) {
+			int letter = alphabet.charAt(i) - 'A';
+			if (letter < 0 || letter >= SIZE || cipher[letter] != -1) {
+				throw new IllegalArgumentException("Not a permutation of the alphabet : " + alphabet);
+			}
+			plain[i] = alphabet.charAt(i);
+			cipher[letter] = (byte) i;
+		}
+	}
+
+	/**
+	 * Constructor : creates a copy of a substitution alphabet.
+	 *
+	 * @param other The alphabet to copy
+	 */
+	public SubstitutionAlphabet(SubstitutionAlphabet other) {
+		System.arraycopy(other.plain, 0, plain, 0, SIZE);
+		System.arraycopy(other.cipher, 0, cipher, 0, SIZE);
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the substitute of a letter.
+	 *
+	 * @param letter An uppercase letter
+	 * @return The substitute of the letter
+	 */
+	public char substitute(char letter) {
+		return plain[letter - 'A'];
+	}
+
+	/**
+	 * Returns the letter whose substitute is the given letter.
+	 *
+	 * @param substitute An uppercase letter
+	 * @return The letter substituted by the given letter
+	 */
+	public char original(char substitute) {
+		return (char) ('A' + cipher[substitute - 'A']);
+	}
+
+	/**
+	 * Swaps two substitutes: the letters substituted by 'a' and 'b' are now
+	 * substituted by 'b' and 'a'.
+	 *
+	 * @param a An uppercase letter
+	 * @param b An uppercase letter
+	 */
+	public void swapSubstitutes(char a, char b) {
+		int i = cipher[a - 'A'];
+		int j = cipher[b - 'A'];
+		plain[i] = b;
+		plain[j] = a;
+		cipher[a - 'A'] = (byte) j;
+		cipher[b - 'A'] = (byte) i;
+	}
+
+	/**
+	 * Returns the inverse substitution alphabet.
+	 *
+	 * @return A new alphabet undoing this substitution
+	 */
+	public SubstitutionAlphabet inverse() {
+		SubstitutionAlphabet result = new SubstitutionAlphabet(this);
+		for (int i = 0; i < SIZE; i++) {
+			result.plain[i] = (char) ('A' + cipher[i]);
+			result.cipher[i] = (byte) (plain[i] - 'A');
+		}
+		return result;
+	}
+
+	/**
+	 * Substitutes the uppercase letters of a text into a buffer. The other
+	 * characters are copied unchanged.
+	 *
+	 * @param text A text
+	 * @param out  A buffer at least as long as the text
+	 */
+	public void apply(CharSequence text, char[] out) {
+		substitute(text, plain, out);
+	}
+
+	/**
+	 * Substitutes the uppercase letters of a text. The other characters are
+	 * copied unchanged.
+	 *
+	 * @param text A text
+	 * @return The substituted text
+	 */
+	public String apply(CharSequence text) {
+		char[] out = new char[text.length()];
+		apply(text, out);
+		return new String(out);
+	}
+
+	/**
+	 * Substitutes the uppercase letters of a text with an unchecked alphabet: the
+	 * letter at index i of the alphabet replaces the i-th letter, and the letters
+	 * beyond the end of the alphabet are left unchanged, as are the characters
+	 * other than 'A' to 'Z'.
+	 *
+	 * @param text     A text
+	 * @param alphabet The substitutes of the letters, in alphabetic order
+	 * @return The substituted text
+	 */
+	public static String applyUnchecked(CharSequence text, String alphabet) {
+		char[] table = new char[SIZE];
+		for (int i = 0; i < SIZE; i++) {
+			table[i] = i < alphabet.length() ? alphabet.charAt(i) : (char) ('A' + i);
+		}
+		char[] out = new char[text.length()];
+		substitute(text, table, out);
+		return new String(out);
+	}
+
+	/**
+	 * Returns the textual form of the alphabet.
+	 *
+	 * @return The 26 substitutes, in alphabetic order of the substituted letters
+	 */
+	public String toString() {
+		return new String(plain);
+	}
+
+	public boolean equals(Object o) {
+		return o instanceof SubstitutionAlphabet other && Arrays.equals(plain, other.plain);
+	}
+
+	public int hashCode() {
+		return Arrays.hashCode(plain);
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Remplace les lettres majuscules d'un texte à l'aide d'une table de
+	 * substitution et recopie les autres caractères.
+	 *
+	 * @param text  le texte
+	 * @param table les lettres de substitution de 'A' à 'Z'
+	 * @param out   le tampon recevant le texte substitué
+	 */
+	private static void substitute(CharSequence text, char[] table, char[] out) {
+		for (int i = 0; i < text.length(); i++) {
+			char c = text.charAt(i);
+			out[i] = c >= 'A' && c <= 'Z' ? table[c - 'A'] : c;
+		}
+	}
+}
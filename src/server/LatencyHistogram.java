@@ -0,0 +1,108 @@
+package server;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme des durées de traitement d'un point d'accès du serveur.
+ *
+ * Les durées sont réparties en classes de puissances de deux microsecondes
+ * (moins de 1 µs, 1 à 2 µs, 2 à 4 µs, ...), ce qui suffit pour situer les
+ * percentiles à un facteur deux près sans conserver les mesures. Les
+ * enregistrements concurrents ne se bloquent pas.
+ */
+public final class LatencyHistogram {
+	private static final int BUCKETS = 40;
+
+	private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+	private final LongAdder count = new LongAdder();
+	private final LongAdder totalNanos = new LongAdder();
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Records the duration of one request.
+	 *
+	 * @param nanos The duration, in nanoseconds
+	 */
+	public void record(long nanos) {
+		long micros = Math.max(0, nanos) / 1000;
+		int bucket = Math.min(BUCKETS - 1, Long.SIZE - Long.numberOfLeadingZeros(micros));
+		buckets.incrementAndGet(bucket);
+		count.increment();
+		totalNanos.add(nanos);
+	}
+
+	/**
+	 * Returns the number of recorded requests.
+	 *
+	 * @return The number of recorded requests
+	 */
+	public long count() {
+		return count.sum();
+	}
+
+	/**
+	 * Returns the mean duration of the recorded requests.
+	 *
+	 * @return The mean duration in microseconds, 0 if nothing was recorded
+	 */
+	public double meanMicros() {
+		long n = count.sum();
+		return n == 0 ? 0 : totalNanos.sum() / 1000.0 / n;
+	}
+
+	/**
+	 * Returns an upper bound of a percentile of the recorded durations: the
+	 * upper limit of the bucket containing it.
+	 *
+	 * @param percentile A percentile, between 0 and 100
+	 * @return The upper bound in microseconds, 0 if nothing was recorded
+	 * @throws IllegalArgumentException If the percentile is out of range
+	 */
+	public long percentileMicros(double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Invalid percentile : " + percentile);
+		}
+		long[] counts = counts();
+		long total = 0;
+		for (long c : counts) {
+			total += c;
+		}
+		if (total == 0) {
+			return 0;
+		}
+		long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+		long seen = 0;
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return 1L << i;
+			}
+		}
+		return 1L << (BUCKETS - 1);
+	}
+
+	/**
+	 * Returns the number of requests in each bucket; bucket i holds the
+	 * durations lower than 2^i microseconds and, for i > 0, greater than or
+	 * equal to 2^(i-1) microseconds.
+	 *
+	 * @return The counts of the buckets
+	 */
+	public long[] counts() {
+		long[] counts = new long[BUCKETS];
+		for (int i = 0; i < BUCKETS; i++) {
+			counts[i] = buckets.get(i);
+		}
+		return counts;
+	}
+
+	@Override
+	public String toString() {
+		return String.format("count=%d mean=%.1fus p50<=%dus p90<=%dus p99<=%dus max<=%dus", count(), meanMicros(),
+				percentileMicros(50), percentileMicros(90), percentileMicros(99), percentileMicros(100));
+	}
+}
@@ -0,0 +1,348 @@
+package server;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import boggle.SolveCache;
+import cryptanalysis.AnalysisCache;
+import cryptanalysis.SubstitutionAlphabet;
+import tree.DictionaryRegistry;
+import tree.LexicographicTree;
+
+/**
+ * Serveur HTTP local donnant accès à un dictionnaire partagé, pour que
+ * plusieurs services n'aient pas à charger chacun leur copie.
+ *
+ * Le serveur n'écoute que sur l'interface de bouclage. Les requêtes sont
+ * traitées par un nombre borné de threads ; le dictionnaire n'est que lu. Les
+ * corps des requêtes et des réponses sont du texte UTF-8 : chaque ligne du
+ * corps d'une requête est une demande, et la réponse contient une ligne par
+ * demande, dans le même ordre. Points d'accès :
+ * <ul>
+ * <li>POST /words : un mot par ligne ; réponse {@code mot true|false}, false
+ * si la ligne contient d'autres caractères que 'a' à 'z', '-' et '\''</li>
+ * <li>POST /prefixes : un préfixe par ligne ; réponse {@code préfixe true|false},
+ * avec la même règle</li>
+ * <li>POST /boggle : une grille carrée par ligne (ses lettres, ligne par
+ * ligne) ; réponse : les mots trouvés, triés et séparés par des espaces</li>
+ * <li>POST /substitute?alphabet=... : un texte par ligne ; réponse : le texte
+ * substitué</li>
+ * <li>POST /analyze?alphabet=... : le corps entier est un cryptogramme ;
+ * réponse : l'alphabet de déchiffrement obtenu</li>
+ * <li>GET /stats : une ligne par point d'accès avec l'histogramme de ses
+ * durées de traitement, puis les statistiques des caches</li>
+ * </ul>
+ * Les résolutions de grilles et les analyses déjà demandées sont servies par
+ * des caches bornés. Une demande invalide donne une réponse 400 avec le
+ * message d'erreur, un corps de plus de {@link #MAX_BODY_BYTES} octets une
+ * réponse 413.
+ */
+public final class QueryServer implements AutoCloseable {
+	private static final String IDENTITY_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+	private static final int CACHED_GRIDS = 1024;
+	private static final int CACHED_ANALYSES = 256;
+
+	/**
+	 * Taille maximale du corps d'une requête, en octets (un cryptogramme tient
+	 * largement dans cette limite).
+	 */
+	static final int MAX_BODY_BYTES = 1 << 20;
+
+	private final LexicographicTree dict;
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final Map<String, LatencyHistogram> histograms;
+	private final SolveCache solveCache = new SolveCache(CACHED_GRIDS);
+	private final AnalysisCache analysisCache = new AnalysisCache(CACHED_ANALYSES);
+
+	/**
+	 * Traitement du corps d'une requête par un point d'accès.
+	 */
+	@FunctionalInterface
+	private interface Endpoint {
+		/**
+		 * @param body  le corps de la requête
+		 * @param query les paramètres de l'URL
+		 * @return le corps de la réponse
+		 */
+		String handle(String body, Map<String, String> query);
+	}
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructor : creates a server bound to a local port, using one thread
+	 * per processor. The server does not accept requests until it is started.
+	 *
+	 * @param dict A dictionary, which must not be modified while the server runs
+	 * @param port A port of the loopback interface, or 0 for any free port
+	 * @throws UncheckedIOException If the port cannot be bound
+	 */
+	public QueryServer(LexicographicTree dict, int port) {
+		this(dict, port, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Constructor : creates a server bound to a local port. The server does not
+	 * accept requests until it is started.
+	 *
+	 * @param dict    A dictionary, which must not be modified while the server
+	 *                runs
+	 * @param port    A port of the loopback interface, or 0 for any free port
+	 * @param threads The number of threads handling the requests
+	 * @throws UncheckedIOException If the port cannot be bound
+	 */
+	public QueryServer(LexicographicTree dict, int port, int threads) {
+		if (threads < 1) {
+			throw new IllegalArgumentException("Invalid number of threads : " + threads);
+		}
+		this.dict = dict;
+		try {
+			this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot bind port " + port, e);
+		}
+		this.executor = Executors.newFixedThreadPool(threads);
+		server.setExecutor(executor);
+
+		Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+		addEndpoint("/words", "POST", this::containsWords, histograms);
+		addEndpoint("/prefixes", "POST", this::containsPrefixes, histograms);
+		addEndpoint("/boggle", "POST", this::solveBoggles, histograms);
+		addEndpoint("/substitute", "POST", QueryServer::substitute, histograms);
+		addEndpoint("/analyze", "POST", this::analyze, histograms);
+		addEndpoint("/stats", "GET", (body, query) -> stats(), histograms);
+		this.histograms = Collections.unmodifiableMap(histograms);
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Starts accepting requests.
+	 */
+	public void start() {
+		server.start();
+	}
+
+	/**
+	 * Stops the server, waiting at most one second for the requests being
+	 * handled, and releases its threads.
+	 */
+	@Override
+	public void close() {
+		server.stop(1);
+		executor.shutdown();
+		try {
+			executor.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while stopping the server", e);
+		}
+	}
+
+	/**
+	 * Returns the port the server is bound to.
+	 *
+	 * @return The local port
+	 */
+	public int port() {
+		return server.getAddress().getPort();
+	}
+
+	/**
+	 * Returns the latency histogram of each endpoint.
+	 *
+	 * @return The histograms, by endpoint path
+	 */
+	public Map<String, LatencyHistogram> histograms() {
+		return histograms;
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Déclare un point d'accès et son histogramme de durées.
+	 *
+	 * @param path       le chemin du point d'accès
+	 * @param method     la méthode HTTP acceptée
+	 * @param endpoint   le traitement des requêtes
+	 * @param histograms les histogrammes, par chemin
+	 */
+	private void addEndpoint(String path, String method, Endpoint endpoint, Map<String, LatencyHistogram> histograms) {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histograms.put(path, histogram);
+		server.createContext(path, exchange -> {
+			long start = System.nanoTime();
+			try (exchange) {
+				if (!exchange.getRequestURI().getPath().equals(path)) {
+					send(exchange, 404, "Unknown endpoint");
+				} else if (!exchange.getRequestMethod().equals(method)) {
+					send(exchange, 405, "Use " + method);
+				} else {
+					String body = readBody(exchange);
+					if (body == null) {
+						send(exchange, 413, "Request body larger than " + MAX_BODY_BYTES + " bytes");
+						return;
+					}
+					String response;
+					try {
+						response = endpoint.handle(body, parseQuery(exchange.getRequestURI().getRawQuery()));
+					} catch (IllegalArgumentException e) {
+						send(exchange, 400, e.getMessage());
+						return;
+					} catch (RuntimeException e) {
+						send(exchange, 500, e.toString());
+						return;
+					}
+					send(exchange, 200, response);
+				}
+			} finally {
+				histogram.record(System.nanoTime() - start);
+			}
+		});
+	}
+
+	private String containsWords(String body, Map<String, String> query) {
+		StringBuilder response = new StringBuilder();
+		for (String word : body.lines().toList()) {
+			response.append(word).append(' ').append(isWord(word) && dict.containsWord(word)).append('\n');
+		}
+		return response.toString();
+	}
+
+	private String containsPrefixes(String body, Map<String, String> query) {
+		StringBuilder response = new StringBuilder();
+		for (String prefix : body.lines().toList()) {
+			response.append(prefix).append(' ').append(isWord(prefix) && dict.containsPrefix(prefix)).append('\n');
+		}
+		return response.toString();
+	}
+
+	/**
+	 * Détermine si une chaîne ne contient que des caractères pouvant figurer
+	 * dans un mot du dictionnaire ('a' à 'z', le tiret et l'apostrophe) : les
+	 * autres lignes sont absentes du dictionnaire sans qu'il soit consulté.
+	 * 
+	 * @param s une ligne d'une requête
+	 * @return la valeur {@code true} si la chaîne peut être cherchée dans le
+	 *         dictionnaire, {@code false} sinon
+	 */
+	private static boolean isWord(String s) {
+		return s.chars().allMatch(c -> c >= 'a' && c <= 'z' || c == '-' || c == '\'');
+	}
+
+	/**
+	 * Résout des grilles de Boggle carrées, une par ligne.
+	 */
+	private String solveBoggles(String body, Map<String, String> query) {
+		StringBuilder response = new StringBuilder();
+		for (String letters : body.lines().toList()) {
+			int size = (int) Math.sqrt(letters.length());
+			if (size == 0 || size * size != letters.length() || !letters.chars().allMatch(c -> c >= 'a' && c <= 'z')) {
+				throw new IllegalArgumentException("Invalid grid : " + letters);
+			}
+			response.append(String.join(" ", solveCache.solve(size, letters, dict))).append('\n');
+		}
+		return response.toString();
+	}
+
+	private static String substitute(String body, Map<String, String> query) {
+		SubstitutionAlphabet alphabet = new SubstitutionAlphabet(requiredParameter(query, "alphabet"));
+		StringBuilder response = new StringBuilder();
+		for (String text : body.lines().toList()) {
+			response.append(alphabet.apply(text)).append('\n');
+		}
+		return response.toString();
+	}
+
+	private String analyze(String body, Map<String, String> query) {
+		String alphabet = query.getOrDefault("alphabet", IDENTITY_ALPHABET);
+		return analysisCache.guessApproximatedAlphabet(body, alphabet, 1, dict) + "\n";
+	}
+
+	private String stats() {
+		StringBuilder response = new StringBuilder();
+		histograms.forEach((path, histogram) -> response.append(path).append(' ').append(histogram).append('\n'));
+		response.append("boggle cache ").append(solveCache.stats()).append('\n');
+		response.append("analysis cache ").append(analysisCache.stats()).append('\n');
+		return response.toString();
+	}
+
+	private static String requiredParameter(Map<String, String> query, String name) {
+		String value = query.get(name);
+		if (value == null) {
+			throw new IllegalArgumentException("Missing parameter " + name);
+		}
+		return value;
+	}
+
+	private static Map<String, String> parseQuery(String rawQuery) {
+		Map<String, String> query = new HashMap<>();
+		if (rawQuery != null) {
+			for (String parameter : rawQuery.split("&")) {
+				int equals = parameter.indexOf('=');
+				String name = equals < 0 ? parameter : parameter.substring(0, equals);
+				String value = equals < 0 ? "" : parameter.substring(equals + 1);
+				query.put(URLDecoder.decode(name, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+			}
+		}
+		return query;
+	}
+
+	/**
+	 * Lit le corps d'une requête, sans dépasser la taille maximale.
+	 *
+	 * @param exchange la requête
+	 * @return le corps de la requête, ou {@code null} s'il dépasse la taille
+	 *         maximale
+	 */
+	private static String readBody(HttpExchange exchange) throws IOException {
+		try (InputStream in = exchange.getRequestBody()) {
+			byte[] bytes = in.readNBytes(MAX_BODY_BYTES + 1);
+			return bytes.length > MAX_BODY_BYTES ? null : new String(bytes, StandardCharsets.UTF_8);
+		}
+	}
+
+	private static void send(HttpExchange exchange, int status, String body) throws IOException {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+		exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+		try (OutputStream out = exchange.getResponseBody()) {
+			out.write(bytes);
+		}
+	}
+
+	/*
+	 * MAIN PROGRAM
+	 */
+
+	public static void main(String[] args) {
+		int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+		LexicographicTree dict = DictionaryRegistry.shared().get("mots/dictionnaire_FR_sans_accents.txt");
+		QueryServer server = new QueryServer(dict, port);
+		server.start();
+		System.out.println("Listening on http://localhost:" + server.port());
+	}
+}
@@ -0,0 +1,138 @@
+package tree;
+
+/**
+ * Filtre de Bloom par blocs : chaque élément positionne ses bits dans un seul
+ * bloc de 512 bits (une ligne de cache), de sorte qu'un test ne lit qu'une
+ * ligne de cache. Un test négatif est certain ; un test positif peut être un
+ * faux positif.
+ *
+ * Les éléments sont des empreintes de 64 bits, calculées lettre par lettre
+ * (FNV-1a suivi d'un mélange final) : l'empreinte de chaque préfixe d'un mot
+ * s'obtient ainsi au cours d'un seul parcours du mot. Les lettres majuscules
+ * ASCII sont converties en minuscules avant le calcul.
+ */
+final class BloomFilter {
+	private static final int BLOCK_BITS = 512;
+	private static final int BLOCK_LONGS = BLOCK_BITS / Long.SIZE;
+	private static final int HASH_COUNT = 7;
+	private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	private final long[] bits;
+	private final int blocks;
+	private long elements = 0;
+
+	/**
+	 * Crée un filtre dimensionné pour un nombre d'éléments donné.
+	 *
+	 * @param expectedElements le nombre d'éléments attendus
+	 * @param bitsPerElement   le nombre de bits par élément
+	 */
+	BloomFilter(long expectedElements, int bitsPerElement) {
+		long blockCount = Math.max(1, (expectedElements * bitsPerElement + BLOCK_BITS - 1) / BLOCK_BITS);
+		this.blocks = (int) Math.min(blockCount, Integer.MAX_VALUE / BLOCK_LONGS);
+		this.bits = new long[blocks * BLOCK_LONGS];
+	}
+
+	/**
+	 * @return l'état initial du calcul d'une empreinte
+	 */
+	static long start() {
+		return FNV_OFFSET;
+	}
+
+	/**
+	 * Ajoute une lettre au calcul d'une empreinte.
+	 *
+	 * @param state l'état du calcul
+	 * @param c     la lettre
+	 * @return le nouvel état du calcul
+	 */
+	static long step(long state, char c) {
+		if (c >= 'A' && c <= 'Z') {
+			c += 'a' - 'A';
+		}
+		return (state ^ c) * FNV_PRIME;
+	}
+
+	/**
+	 * Termine le calcul d'une empreinte (mélange final de MurmurHash3).
+	 *
+	 * @param state l'état du calcul
+	 * @return l'empreinte
+	 */
+	static long finish(long state) {
+		state ^= state >>> 33;
+		state *= 0xff51afd7ed558ccdL;
+		state ^= state >>> 33;
+		state *= 0xc4ceb9fe1a85ec53L;
+		state ^= state >>> 33;
+		return state;
+	}
+
+	/**
+	 * Ajoute un élément au filtre.
+	 *
+	 * @param hash l'empreinte de l'élément
+	 */
+	void add(long hash) {
+		int base = block(hash) * BLOCK_LONGS;
+		int h = (int) hash;
+		int delta = (int) (hash >>> 32) | 1;
+		for (int i = 0; i < HASH_COUNT; i++, h += delta) {
+			int bit = h & (BLOCK_BITS - 1);
+			bits[base + (bit >>> 6)] |= 1L << bit;
+		}
+		elements++;
+	}
+
+	/**
+	 * Teste si un élément a pu être ajouté au filtre.
+	 *
+	 * @param hash l'empreinte de l'élément
+	 * @return la valeur {@code false} si l'élément n'a certainement pas été
+	 *         ajouté, {@code true} s'il l'a probablement été
+	 */
+	boolean mightContain(long hash) {
+		int base = block(hash) * BLOCK_LONGS;
+		int h = (int) hash;
+		int delta = (int) (hash >>> 32) | 1;
+		for (int i = 0; i < HASH_COUNT; i++, h += delta) {
+			int bit = h & (BLOCK_BITS - 1);
+			if ((bits[base + (bit >>> 6)] & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return le nombre d'éléments ajoutés au filtre
+	 */
+	long elements() {
+		return elements;
+	}
+
+	/**
+	 * @return la mémoire occupée par les bits du filtre, en octets
+	 */
+	long memoryBytes() {
+		return (long) bits.length * Long.BYTES;
+	}
+
+	/**
+	 * Estime le taux de faux positifs à partir du nombre d'éléments ajoutés
+	 * (formule du filtre de Bloom classique, légèrement optimiste pour un
+	 * filtre par blocs).
+	 *
+	 * @return le taux de faux positifs attendu
+	 */
+	double expectedFalsePositiveRate() {
+		double m = (double) bits.length * Long.SIZE;
+		return Math.pow(1 - Math.exp(-HASH_COUNT * elements / m), HASH_COUNT);
+	}
+
+	private int block(long hash) {
+		return (int) (((hash >>> 40) * blocks) >>> 24);
+	}
+}
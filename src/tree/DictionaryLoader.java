@@ -0,0 +1,182 @@
+package tree;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Chargement d'un fichier de mots (un mot par ligne) dans un arbre
+ * lexicographique.
+ *
+ * Le fichier est lu par blocs d'octets et chaque mot est inséré directement à
+ * partir de ses octets, sans décodage en caractères ni création de chaîne. Un
+ * fichier compressé au format gzip est reconnu à ses deux premiers octets et
+ * décompressé à la volée. Les lignes contenant d'autres caractères que 'a' à
+ * 'z', le tiret et l'apostrophe sont ignorées et signalées ; les lignes vides
+ * et les fins de ligne Windows sont acceptées.
+ */
+public final class DictionaryLoader {
+	private static final int BUFFER_SIZE = 1 << 16;
+	private static final int MAX_REPORTED_LINES = 100;
+
+	/**
+	 * Ligne ignorée lors d'un chargement.
+	 *
+	 * @param number  le numéro de la ligne (à partir de 1)
+	 * @param content le contenu de la ligne
+	 */
+	public record MalformedLine(long number, String content) {
+	}
+
+	/**
+	 * Bilan d'un chargement.
+	 *
+	 * @param words          le nombre de mots ajoutés à l'arbre
+	 * @param bytes          le nombre d'octets lus (après décompression)
+	 * @param fileBytes      la taille du fichier
+	 * @param nanos          la durée du chargement
+	 * @param malformedCount le nombre de lignes ignorées
+	 * @param malformedLines les premières lignes ignorées
+	 */
+	public record LoadReport(int words, long bytes, long fileBytes, long nanos, long malformedCount,
+			List<MalformedLine> malformedLines) {
+		/**
+		 * @return le débit du chargement, en mégaoctets lus par seconde
+		 */
+		public double megabytesPerSecond() {
+			return nanos == 0 ? 0 : bytes / (1024.0 * 1024.0) / (nanos / 1e9);
+		}
+
+		@Override
+		public String toString() {
+			return String.format("%d words, %.1f MB in %.3f s (%.1f MB/s), %d malformed lines", words,
+					bytes / (1024.0 * 1024.0), nanos / 1e9, megabytesPerSecond(), malformedCount);
+		}
+	}
+
+	private DictionaryLoader() {
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Inserts the words of a file, plain text or gzip-compressed, into a
+	 * lexicographic tree.
+	 *
+	 * @param path A file containing one word per line
+	 * @param tree The tree receiving the words
+	 * @return The number of inserted words, the throughput and the malformed
+	 *         lines
+	 * @throws IOException If the file cannot be read
+	 */
+	public static LoadReport load(Path path, LexicographicTree tree) throws IOException {
+		long start = System.nanoTime();
+		int initialCount = tree.modificationCount();
+		Parser parser = new Parser(tree);
+
+		try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ);
+				ReadableByteChannel channel = isGzip(file)
+						? Channels.newChannel(new GZIPInputStream(Channels.newInputStream(file), BUFFER_SIZE))
+						: file) {
+			ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+			while (channel.read(buffer) >= 0) {
+				parser.accept(buffer.array(), buffer.position());
+				buffer.clear();
+			}
+			parser.finish();
+
+			return new LoadReport(tree.modificationCount() - initialCount, parser.bytes, file.size(),
+					System.nanoTime() - start, parser.malformedCount, List.copyOf(parser.malformedLines));
+		}
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	private static boolean isGzip(FileChannel file) throws IOException {
+		ByteBuffer magic = ByteBuffer.allocate(2);
+		return file.read(magic, 0) == 2 && (magic.get(0) & 0xFF) == 0x1F && (magic.get(1) & 0xFF) == 0x8B;
+	}
+
+	/**
+	 * Découpe en lignes les octets lus et insère les mots valides.
+	 */
+	private static final class Parser {
+		private final LexicographicTree tree;
+		private byte[] line = new byte[64];
+		private int length = 0;
+		private long lineNumber = 1;
+		private long bytes = 0;
+		private long malformedCount = 0;
+		private final List<MalformedLine> malformedLines = new ArrayList<>();
+
+		private Parser(LexicographicTree tree) {
+			this.tree = tree;
+		}
+
+		/**
+		 * Traite un bloc d'octets ; une ligne peut se poursuivre dans le bloc
+		 * suivant.
+		 *
+		 * @param block les octets lus
+		 * @param count le nombre d'octets lus
+		 */
+		private void accept(byte[] block, int count) {
+			bytes += count;
+			for (int i = 0; i < count; i++) {
+				byte b = block[i];
+				if (b == '\n') {
+					endLine();
+					continue;
+				}
+				if (length == line.length) {
+					line = Arrays.copyOf(line, length * 2);
+				}
+				line[length++] = b;
+			}
+		}
+
+		private void finish() {
+			if (length > 0) {
+				endLine();
+			}
+		}
+
+		private void endLine() {
+			int wordLength = length > 0 && line[length - 1] == '\r' ? length - 1 : length;
+			if (!isValid(line, wordLength)) {
+				malformedCount++;
+				if (malformedLines.size() < MAX_REPORTED_LINES) {
+					malformedLines.add(new MalformedLine(lineNumber, new String(line, 0, wordLength,
+							StandardCharsets.UTF_8)));
+				}
+			} else if (wordLength > 0) {
+				tree.insertWord(line, wordLength);
+			}
+			length = 0;
+			lineNumber++;
+		}
+
+		private static boolean isValid(byte[] word, int length) {
+			for (int i = 0; i < length; i++) {
+				byte b = word[i];
+				if (!(b >= 'a' && b <= 'z' || b == '-' || b == '\'')) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
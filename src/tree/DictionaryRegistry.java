@@ -0,0 +1,184 @@
+package tree;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registre des dictionnaires chargés, partagé par tous les composants d'une
+ * JVM.
+ *
+ * Un dictionnaire est identifié par le chemin canonique de son fichier et
+ * n'est chargé qu'une fois : les appelants concurrents attendent le même
+ * chargement. Les dictionnaires fournis sont munis de leurs filtres de
+ * recherche et réellement en lecture seule, ce qui permet de les partager entre
+ * threads sans synchronisation : les insertions sont refusées, les noeuds
+ * obtenus par {@link LexicographicTree#root()} ne peuvent pas être modifiés
+ * hors du paquetage, et les arbres issus d'une opération ensembliste copient
+ * les noeuds partagés avant de les modifier. Si la date de modification ou la
+ * taille du fichier a changé depuis le chargement, le dictionnaire est chargé
+ * à nouveau lors de la demande suivante ; les appelants ayant obtenu
+ * l'ancienne version la conservent.
+ */
+public final class DictionaryRegistry {
+	private static final DictionaryRegistry SHARED = new DictionaryRegistry();
+
+	private final Map<Path, Entry> entries = new ConcurrentHashMap<>();
+
+	/**
+	 * Dictionnaire chargé (ou en cours de chargement) et état du fichier au
+	 * moment du chargement.
+	 */
+	private record Entry(FileTime lastModified, long size, CompletableFuture<LexicographicTree> dictionary) {
+		private boolean isStale(BasicFileAttributes attributes) {
+			return !lastModified.equals(attributes.lastModifiedTime()) || size != attributes.size();
+		}
+	}
+
+	/*
+	 * CONSTRUCTORS
+	 */
+
+	/**
+	 * Constructor : creates an empty registry. Most callers should use the
+	 * registry shared by the whole JVM instead.
+	 */
+	public DictionaryRegistry() {
+	}
+
+	/*
+	 * PUBLIC METHODS
+	 */
+
+	/**
+	 * Returns the registry shared by the whole JVM.
+	 *
+	 * @return The shared registry
+	 */
+	public static DictionaryRegistry shared() {
+		return SHARED;
+	}
+
+	/**
+	 * Returns the dictionary stored in a file, loading it if it has not been
+	 * loaded yet or if the file changed since it was loaded.
+	 *
+	 * @param filename A text file containing one word per line
+	 * @return A read-only dictionary
+	 * @throws UncheckedIOException If the file cannot be read
+	 */
+	public LexicographicTree get(String filename) {
+		Path path = canonicalPath(filename);
+		BasicFileAttributes attributes = attributes(path);
+
+		Entry entry = entries.get(path);
+		if (entry != null && entry.isStale(attributes)) {
+			entries.remove(path, entry);
+			entry = null;
+		}
+		if (entry == null) {
+			Entry created = new Entry(attributes.lastModifiedTime(), attributes.size(), new CompletableFuture<>());
+			entry = entries.putIfAbsent(path, created);
+			if (entry == null) {
+				load(path, created);
+				entry = created;
+			}
+		}
+
+		try {
+			return entry.dictionary().join();
+		} catch (CompletionException e) {
+			throw e.getCause() instanceof RuntimeException cause ? cause : e;
+		}
+	}
+
+	/**
+	 * Removes a dictionary from the registry. The callers holding it can keep
+	 * using it.
+	 *
+	 * @param filename A text file containing one word per line
+	 * @return True if the dictionary was loaded, false otherwise
+	 */
+	public boolean evict(String filename) {
+		try {
+			return entries.remove(Path.of(filename).toRealPath()) != null;
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Loads a dictionary again, whether or not its file changed.
+	 *
+	 * @param filename A text file containing one word per line
+	 * @return The new read-only dictionary
+	 * @throws UncheckedIOException If the file cannot be read
+	 */
+	public LexicographicTree reload(String filename) {
+		evict(filename);
+		return get(filename);
+	}
+
+	/**
+	 * Removes all dictionaries from the registry.
+	 */
+	public void clear() {
+		entries.clear();
+	}
+
+	/**
+	 * Returns the number of dictionaries in the registry.
+	 *
+	 * @return The number of loaded (or loading) dictionaries
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Charge un dictionnaire et transmet le résultat (ou l'erreur) aux appelants
+	 * en attente. En cas d'échec, l'entrée est retirée pour qu'une demande
+	 * ultérieure puisse réessayer.
+	 *
+	 * @param path  le chemin canonique du fichier
+	 * @param entry l'entrée à compléter
+	 */
+	private void load(Path path, Entry entry) {
+		try {
+			LexicographicTree dictionary = new LexicographicTree(path.toString());
+			dictionary.enableLookupFilters();
+			dictionary.makeReadOnly();
+			entry.dictionary().complete(dictionary);
+		} catch (RuntimeException e) {
+			entries.remove(path, entry);
+			entry.dictionary().completeExceptionally(e);
+		}
+	}
+
+	private static Path canonicalPath(String filename) {
+		try {
+			return Path.of(filename).toRealPath();
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot resolve dictionary " + filename, e);
+		}
+	}
+
+	private static BasicFileAttributes attributes(Path path) {
+		try {
+			return Files.readAttributes(path, BasicFileAttributes.class);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot read dictionary " + path, e);
+		}
+	}
+}
@@ -1,20 +1,103 @@
 package tree;
 
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.nio.file.Files;
+import java.io.UncheckedIOException;
 import java.nio.file.Path;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Scanner;
+import java.util.stream.IntStream;
 
 public final class LexicographicTree {
+	private static final int FILTER_BITS_PER_ELEMENT = 10;
 
 	private final TrieNode root;
 	private int size = 0;
+	private int maxWordLength = 0;
+	private int modificationCount = 0;
+	private boolean readOnly = false;
+	private DictionaryLoader.LoadReport loadReport;
+	private volatile SuffixIndex suffixIndex;
+	private volatile LookupFilters lookupFilters;
+	private volatile Fingerprint fingerprint;
+
+	/**
+	 * Size and accuracy of the lookup filters of a tree.
+	 * 
+	 * @param words                  The number of words in the word filter
+	 * @param wordFilterBytes        The memory used by the word filter
+	 * @param wordFalsePositiveRate  The expected false-positive rate of the word
+	 *                               filter
+	 * @param prefixes               The number of prefixes in the prefix filter
+	 * @param prefixFilterBytes      The memory used by the prefix filter
+	 * @param prefixFalsePositiveRate The expected false-positive rate of the
+	 *                               prefix filter
+	 */
+	public record FilterReport(long words, long wordFilterBytes, double wordFalsePositiveRate, long prefixes,
+			long prefixFilterBytes, double prefixFalsePositiveRate) {
+		@Override
+		public String toString() {
+			return String.format("words : %d in %d KB (%.2f%% false positives), prefixes : %d in %d KB "
+					+ "(%.2f%% false positives)", words, wordFilterBytes / 1024, wordFalsePositiveRate * 100,
+					prefixes, prefixFilterBytes / 1024, prefixFalsePositiveRate * 100);
+		}
+	}
+
+	/**
+	 * Filtres de Bloom des mots et des préfixes de l'arbre, publiés ensemble.
+	 */
+	private record LookupFilters(BloomFilter words, BloomFilter prefixes) {
+	}
+
+	/**
+	 * Empreinte du contenu de l'arbre, valable tant que le compteur de
+	 * modifications n'a pas changé.
+	 */
+	private record Fingerprint(int modificationCount, long value) {
+	}
+
+	/**
+	 * Opération ensembliste entre deux arbres.
+	 */
+	private enum SetOperation {
+		UNION, INTERSECTION, DIFFERENCE;
+
+		/**
+		 * @param inThis  {@code true} si le mot appartient au premier arbre
+		 * @param inOther {@code true} si le mot appartient au second arbre
+		 * @return la valeur {@code true} si le mot appartient au résultat,
+		 *         {@code false} sinon
+		 */
+		private boolean keeps(boolean inThis, boolean inOther) {
+			return switch (this) {
+			case UNION -> inThis || inOther;
+			case INTERSECTION -> inThis && inOther;
+			case DIFFERENCE -> inThis && !inOther;
+			};
+		}
+
+		/**
+		 * @param thisSize  le nombre de mots du premier arbre
+		 * @param otherSize le nombre de mots du second arbre
+		 * @param common    le nombre de mots communs aux deux arbres
+		 * @return le nombre de mots du résultat
+		 */
+		private int size(int thisSize, int otherSize, int common) {
+			return switch (this) {
+			case UNION -> thisSize + otherSize - common;
+			case INTERSECTION -> common;
+			case DIFFERENCE -> thisSize - common;
+			};
+		}
+	}
 
 	/*
 	 * CONSTRUCTORS
@@ -28,19 +111,20 @@ public final class LexicographicTree {
 	}
 
 	/**
-	 * Constructor : creates a lexicographic tree populated with words
+	 * Constructor : creates a lexicographic tree populated with words. Lines
+	 * that are not words are skipped and counted in the {@link #loadReport()}.
 	 * 
-	 * @param filename A text file containing the words to be inserted in the tree
+	 * @param filename A text file containing the words to be inserted in the
+	 *                 tree, one per line, possibly gzip-compressed
+	 * @throws UncheckedIOException If the file cannot be read
+	 * @see DictionaryLoader
 	 */
 	public LexicographicTree(String filename) {
 		this();
-		try (BufferedReader reader = Files.newBufferedReader(Path.of(filename))) {
-			String line;
-			while ((line = reader.readLine()) != null) {
-				insertWord(line);
-			}
+		try {
+			loadReport = DictionaryLoader.load(Path.of(filename), this);
 		} catch (IOException e) {
-			e.printStackTrace();
+			throw new UncheckedIOException("Cannot load dictionary " + filename, e);
 		}
 	}
 
@@ -57,31 +141,151 @@ public final class LexicographicTree {
 		return size;
 	}
 
+	/**
+	 * Returns the report of the loading of the file the tree was created from:
+	 * number of words, throughput and skipped lines.
+	 * 
+	 * @return The load report, null if the tree was not created from a file
+	 */
+	public DictionaryLoader.LoadReport loadReport() {
+		return loadReport;
+	}
+
+	/**
+	 * Returns the root node of the lexicographic tree, for callers walking the
+	 * tree letter by letter (e.g. a grid search). Outside of this package, the
+	 * nodes are read-only: words can only be added through
+	 * {@link #insertWord(String)}.
+	 * 
+	 * @return The root node
+	 */
+	public TrieNode root() {
+		return root;
+	}
+
+	/**
+	 * Returns the length of the longest word inserted in the lexicographic tree.
+	 * 
+	 * @return The length of the longest word, 0 if the tree is empty
+	 */
+	public int maxWordLength() {
+		return maxWordLength;
+	}
+
+	/**
+	 * Returns a counter incremented each time a new word is inserted. Callers
+	 * caching data computed from the tree compare it to the value they saw to
+	 * detect changes.
+	 * 
+	 * @return The number of insertions that modified the tree
+	 */
+	public int modificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Returns a 64-bit fingerprint of the words of the tree: two trees holding
+	 * the same words have the same fingerprint, in any JVM, and trees holding
+	 * different words almost always differ. Callers caching results computed
+	 * from the tree include it in their keys. The fingerprint is computed once
+	 * and kept until the tree is modified.
+	 * 
+	 * @return The fingerprint of the words of the tree
+	 */
+	public long fingerprint() {
+		Fingerprint current = fingerprint;
+		if (current == null || current.modificationCount() != modificationCount) {
+			current = new Fingerprint(modificationCount, BloomFilter.finish(fingerprint(root, 0, BloomFilter.start())));
+			fingerprint = current;
+		}
+		return current.value();
+	}
+
+	/**
+	 * Makes the lexicographic tree read-only: later insertions are rejected, so
+	 * that the tree can be shared between components and threads.
+	 */
+	public void makeReadOnly() {
+		readOnly = true;
+	}
+
+	/**
+	 * Determines if the lexicographic tree is read-only.
+	 * 
+	 * @return True if insertions are rejected, false otherwise
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+
+	/**
+	 * Builds Bloom filters over the words and the prefixes of the tree. They
+	 * are then consulted by {@link #containsWord(String)},
+	 * {@link #containsWordIgnoreCase(char[], int)} and
+	 * {@link #containsPrefix(String)} before walking the tree, so that most
+	 * misses are answered without reaching the nodes. The filters never reject
+	 * a present word or prefix and are kept up to date by later insertions.
+	 * Calling this method again rebuilds them, sized for the current tree.
+	 * 
+	 * @return The size and expected accuracy of the filters
+	 */
+	public FilterReport enableLookupFilters() {
+		LookupFilters filters = new LookupFilters(new BloomFilter(size, FILTER_BITS_PER_ELEMENT),
+				new BloomFilter(countNodes(root) - 1, FILTER_BITS_PER_ELEMENT));
+		if (root.isEndWord()) {
+			filters.words().add(BloomFilter.finish(BloomFilter.start()));
+		}
+		fillLookupFilters(root, BloomFilter.start(), filters);
+		lookupFilters = filters;
+		return lookupFilterReport();
+	}
+
+	/**
+	 * Returns the size and expected accuracy of the lookup filters.
+	 * 
+	 * @return The filter report, or null if the filters are not enabled
+	 * @see #enableLookupFilters()
+	 */
+	public FilterReport lookupFilterReport() {
+		LookupFilters filters = lookupFilters;
+		if (filters == null) {
+			return null;
+		}
+		return new FilterReport(filters.words().elements(), filters.words().memoryBytes(),
+				filters.words().expectedFalsePositiveRate(), filters.prefixes().elements(),
+				filters.prefixes().memoryBytes(), filters.prefixes().expectedFalsePositiveRate());
+	}
+
 	/**
 	 * Inserts a word in the lexicographic tree if not already present.
 	 * 
 	 * @param word A word
+	 * @throws UnsupportedOperationException If the tree is read-only
 	 */
 	public void insertWord(String word) {
+		if (readOnly) {
+			throw new UnsupportedOperationException("Read-only dictionary");
+		}
+		LookupFilters filters = lookupFilters;
 		TrieNode currentNode = root;
-		boolean hasNewNode = false;
+		long hash = BloomFilter.start();
 
 		for (char c : word.toCharArray()) {
+			hash = BloomFilter.step(hash, c);
 			TrieNode child = currentNode.getChildren(c);
 			if (child == null) {
 				var newNode = new TrieNode(c);
 				currentNode.addChild(newNode);
 				currentNode = newNode;
-				hasNewNode = true;
+				if (filters != null) {
+					filters.prefixes().add(BloomFilter.finish(hash));
+				}
 			} else {
-				currentNode = child;
+				currentNode = unshared(currentNode, child);
 			}
 		}
 
-		if (hasNewNode) {
-			size++;
-		}
-		currentNode.markAsEndWord();
+		markAsEndWord(currentNode, word.length(), filters, hash);
 	}
 
 	/**
@@ -91,6 +295,10 @@ public final class LexicographicTree {
 	 * @return True if the word is present, false otherwise
 	 */
 	public boolean containsWord(String word) {
+		LookupFilters filters = lookupFilters;
+		if (filters != null && !filters.words().mightContain(hash(word))) {
+			return false;
+		}
 		TrieNode currentNode = root;
 		for (char c : word.toCharArray()) {
 			TrieNode child = currentNode.getChildren(c);
@@ -102,6 +310,41 @@ public final class LexicographicTree {
 		return currentNode.isEndWord();
 	}
 
+	/**
+	 * Determines if a word is present in the lexicographic tree, ignoring the
+	 * case of its letters. The word is read from a character buffer, so that
+	 * callers decoding many words can reuse a single buffer.
+	 * 
+	 * @param word   A buffer containing the word
+	 * @param length The length of the word
+	 * @return True if the word is present, false otherwise
+	 */
+	public boolean containsWordIgnoreCase(char[] word, int length) {
+		LookupFilters filters = lookupFilters;
+		if (filters != null) {
+			long hash = BloomFilter.start();
+			for (int i = 0; i < length; i++) {
+				hash = BloomFilter.step(hash, word[i]);
+			}
+			if (!filters.words().mightContain(BloomFilter.finish(hash))) {
+				return false;
+			}
+		}
+		TrieNode currentNode = root;
+		for (int i = 0; i < length; i++) {
+			char c = word[i];
+			if (c >= 'A' && c <= 'Z') {
+				c += 'a' - 'A';
+			}
+			TrieNode child = currentNode.getChildren(c);
+			if (child == null) {
+				return false;
+			}
+			currentNode = child;
+		}
+		return currentNode.isEndWord();
+	}
+
 	/**
 	 * Returns an alphabetic list of all words starting with the supplied prefix. If
 	 * 'prefix' is an empty string, all words are returned.
@@ -137,6 +380,10 @@ public final class LexicographicTree {
 	 *         {@code false} sinon
 	 */
 	public boolean containsPrefix(String prefix) {
+		LookupFilters filters = lookupFilters;
+		if (filters != null && !prefix.isEmpty() && !filters.prefixes().mightContain(hash(prefix))) {
+			return false;
+		}
 		TrieNode currentNode = root;
 		for (char c : prefix.toCharArray()) {
 			TrieNode child = currentNode.getChildren(c);
@@ -148,6 +395,33 @@ public final class LexicographicTree {
 		return true;
 	}
 
+	/**
+	 * Returns an alphabetic list of all words ending with the supplied suffix.
+	 * The first call builds an index of the suffixes of all words, kept until
+	 * the tree is modified.
+	 * 
+	 * @param suffix Expected suffix
+	 * @return The list of words ending with the supplied suffix
+	 */
+	public List<String> getWordsWithSuffix(String suffix) {
+		return suffixIndex().wordsWithSuffix(suffix);
+	}
+
+	/**
+	 * Returns an alphabetic list of all words containing the supplied string.
+	 * If 'infix' is an empty string, all words are returned. Uses the same index
+	 * as {@link #getWordsWithSuffix(String)}.
+	 * 
+	 * @param infix Expected infix
+	 * @return The list of words containing the supplied string
+	 */
+	public List<String> getWordsContaining(String infix) {
+		if (infix.isEmpty()) {
+			return getWords("");
+		}
+		return suffixIndex().wordsContaining(infix);
+	}
+
 	/**
 	 * Returns an alphabetic list of all words of a given length. If 'length' is
 	 * lower than or equal to zero, an empty list is returned.
@@ -163,10 +437,467 @@ public final class LexicographicTree {
 		return words;
 	}
 
+	/**
+	 * Returns a new lexicographic tree containing the words present in this
+	 * tree or in another one. Both tries are merged in a single traversal: the
+	 * subtrees absent from the other operand are shared with the result instead
+	 * of being copied. A shared node is copied by the first insertion passing
+	 * through it, so that the trees remain independent.
+	 * 
+	 * @param other Another lexicographic tree
+	 * @return The union of both trees
+	 */
+	public LexicographicTree union(LexicographicTree other) {
+		return union(other, false);
+	}
+
+	/**
+	 * Returns a new lexicographic tree containing the words present in this
+	 * tree or in another one, possibly merging the subtrees of each first
+	 * letter in parallel.
+	 * 
+	 * @param other    Another lexicographic tree
+	 * @param parallel True to merge the subtrees of the first letters in
+	 *                 parallel, false otherwise
+	 * @return The union of both trees
+	 * @see #union(LexicographicTree)
+	 */
+	public LexicographicTree union(LexicographicTree other, boolean parallel) {
+		return combine(other, SetOperation.UNION, parallel);
+	}
+
+	/**
+	 * Returns a new lexicographic tree containing the words present in both
+	 * this tree and another one.
+	 * 
+	 * @param other Another lexicographic tree
+	 * @return The intersection of both trees
+	 * @see #union(LexicographicTree)
+	 */
+	public LexicographicTree intersection(LexicographicTree other) {
+		return intersection(other, false);
+	}
+
+	/**
+	 * Returns a new lexicographic tree containing the words present in both
+	 * this tree and another one, possibly merging the subtrees of each first
+	 * letter in parallel.
+	 * 
+	 * @param other    Another lexicographic tree
+	 * @param parallel True to merge the subtrees of the first letters in
+	 *                 parallel, false otherwise
+	 * @return The intersection of both trees
+	 * @see #union(LexicographicTree)
+	 */
+	public LexicographicTree intersection(LexicographicTree other, boolean parallel) {
+		return combine(other, SetOperation.INTERSECTION, parallel);
+	}
+
+	/**
+	 * Returns a new lexicographic tree containing the words present in this
+	 * tree but not in another one.
+	 * 
+	 * @param other Another lexicographic tree
+	 * @return The words of this tree missing from the other one
+	 * @see #union(LexicographicTree)
+	 */
+	public LexicographicTree difference(LexicographicTree other) {
+		return difference(other, false);
+	}
+
+	/**
+	 * Returns a new lexicographic tree containing the words present in this
+	 * tree but not in another one, possibly merging the subtrees of each first
+	 * letter in parallel.
+	 * 
+	 * @param other    Another lexicographic tree
+	 * @param parallel True to merge the subtrees of the first letters in
+	 *                 parallel, false otherwise
+	 * @return The words of this tree missing from the other one
+	 * @see #union(LexicographicTree)
+	 */
+	public LexicographicTree difference(LexicographicTree other, boolean parallel) {
+		return combine(other, SetOperation.DIFFERENCE, parallel);
+	}
+
+	/**
+	 * Returns the least word greater than or equal to the given word, in the
+	 * order of {@link #getWords(String)} (letters, then '-', then '\'').
+	 * 
+	 * @param word A word
+	 * @return The least word greater than or equal to the given word, or null
+	 *         if there is no such word
+	 * @throws IllegalArgumentException If the word contains other characters
+	 *                                  than 'a' to 'z', '-' and '\''
+	 */
+	public String ceiling(String word) {
+		Cursor cursor = new Cursor(root, word, true, null);
+		return cursor.hasNext() ? cursor.next() : null;
+	}
+
+	/**
+	 * Returns the least word strictly greater than the given word, in the order
+	 * of {@link #getWords(String)}.
+	 * 
+	 * @param word A word
+	 * @return The least word strictly greater than the given word, or null if
+	 *         there is no such word
+	 * @throws IllegalArgumentException If the word contains other characters
+	 *                                  than 'a' to 'z', '-' and '\''
+	 */
+	public String next(String word) {
+		Cursor cursor = new Cursor(root, word, false, null);
+		return cursor.hasNext() ? cursor.next() : null;
+	}
+
+	/**
+	 * Returns the greatest word less than or equal to the given word, in the
+	 * order of {@link #getWords(String)}.
+	 * 
+	 * @param word A word
+	 * @return The greatest word less than or equal to the given word, or null
+	 *         if there is no such word
+	 * @throws IllegalArgumentException If the word contains other characters
+	 *                                  than 'a' to 'z', '-' and '\''
+	 */
+	public String floor(String word) {
+		TrieNode[] path = new TrieNode[word.length() + 1];
+		path[0] = root;
+		int matched = 0;
+		while (matched < word.length()) {
+			TrieNode child = path[matched].getChildren(rank(word.charAt(matched)));
+			if (child == null) {
+				break;
+			}
+			path[++matched] = child;
+		}
+		checkLetters(word);
+
+		if (matched == word.length() && path[matched].isEndWord()) {
+			return word;
+		}
+		for (int depth = Math.min(matched, word.length() - 1); depth >= 0; depth--) {
+			TrieNode node = path[depth];
+			for (int i = rank(word.charAt(depth)) - 1; i >= 0; i--) {
+				TrieNode child = node.getChildren(i);
+				if (child != null) {
+					return lastWord(child, new StringBuilder(word.substring(0, depth)));
+				}
+			}
+			if (node.isEndWord()) {
+				return word.substring(0, depth);
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the words from 'from' (inclusive) to 'to' (exclusive), in the
+	 * order of {@link #getWords(String)}. The words are found while iterating,
+	 * without building the list of all words.
+	 * 
+	 * @param from The lower bound (inclusive)
+	 * @param to   The upper bound (exclusive), or null for no upper bound
+	 * @return The words between both bounds
+	 * @throws IllegalArgumentException If a bound contains other characters
+	 *                                  than 'a' to 'z', '-' and '\''
+	 */
+	public Iterable<String> range(String from, String to) {
+		checkLetters(from);
+		if (to != null) {
+			checkLetters(to);
+		}
+		return () -> new Cursor(root, from, true, to);
+	}
+
+	/**
+	 * Returns a cursor over the words greater than or equal to the given word,
+	 * in the order of {@link #getWords(String)}. If 'from' is an empty string,
+	 * the cursor starts at the first word.
+	 * 
+	 * @param from The first word (or a word before it)
+	 * @return A cursor positioned before the least word greater than or equal
+	 *         to 'from'
+	 * @throws IllegalArgumentException If the word contains other characters
+	 *                                  than 'a' to 'z', '-' and '\''
+	 */
+	public Cursor cursor(String from) {
+		return new Cursor(root, from, true, null);
+	}
+
+	/**
+	 * Returns a cursor resuming where another one stopped, possibly on another
+	 * instance of the same dictionary. Positioning costs one walk down the
+	 * tree, whatever the position.
+	 * 
+	 * @param token A token returned by {@link Cursor#token()}
+	 * @return A cursor positioned where the token was taken
+	 * @throws IllegalArgumentException If the token is invalid
+	 */
+	public Cursor resume(String token) {
+		String position;
+		try {
+			position = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+		} catch (IllegalArgumentException e) {
+			throw new IllegalArgumentException("Invalid cursor token " + token, e);
+		}
+		if (position.isEmpty() || position.charAt(0) != '[' && position.charAt(0) != '(') {
+			throw new IllegalArgumentException("Invalid cursor token " + token);
+		}
+		return new Cursor(root, position.substring(1), position.charAt(0) == '[', null);
+	}
+
+	/*
+	 * PACKAGE METHODS
+	 */
+
+	/**
+	 * Insère un mot lu sous forme d'octets ASCII ('a' à 'z', '-' et '\''), sans
+	 * créer de chaîne.
+	 * 
+	 * @param word   les octets du mot
+	 * @param length la longueur du mot
+	 */
+	void insertWord(byte[] word, int length) {
+		if (readOnly) {
+			throw new UnsupportedOperationException("Read-only dictionary");
+		}
+		LookupFilters filters = lookupFilters;
+		TrieNode currentNode = root;
+		long hash = BloomFilter.start();
+
+		for (int i = 0; i < length; i++) {
+			char c = (char) word[i];
+			hash = BloomFilter.step(hash, c);
+			TrieNode child = currentNode.getChildren(c);
+			if (child == null) {
+				var newNode = new TrieNode(c);
+				currentNode.addChild(newNode);
+				currentNode = newNode;
+				if (filters != null) {
+					filters.prefixes().add(BloomFilter.finish(hash));
+				}
+			} else {
+				currentNode = unshared(currentNode, child);
+			}
+		}
+
+		markAsEndWord(currentNode, length, filters, hash);
+	}
+
 	/*
 	 * PRIVATE METHODS
 	 */
 
+	/**
+	 * Marque la fin d'un mot inséré et met à jour les compteurs de l'arbre et,
+	 * s'ils existent, les filtres de recherche.
+	 * 
+	 * @param node    le dernier noeud du mot
+	 * @param length  la longueur du mot
+	 * @param filters les filtres de recherche, ou {@code null}
+	 * @param hash    l'état du calcul de l'empreinte du mot
+	 */
+	private void markAsEndWord(TrieNode node, int length, LookupFilters filters, long hash) {
+		if (!node.isEndWord()) {
+			size++;
+			modificationCount++;
+			if (filters != null) {
+				filters.words().add(BloomFilter.finish(hash));
+			}
+		}
+		node.markAsEndWord();
+		maxWordLength = Math.max(maxWordLength, length);
+	}
+
+	/**
+	 * Retourne l'enfant d'un noeud sur le chemin d'une insertion, en le copiant
+	 * s'il est partagé avec un autre arbre. Le parent n'est jamais partagé : la
+	 * racine ne l'est pas, et une insertion copie chaque noeud partagé avant de
+	 * descendre dans ses enfants.
+	 * 
+	 * @param parent le noeud courant de l'insertion
+	 * @param child  l'enfant suivant
+	 * @return l'enfant, que l'arbre peut modifier
+	 */
+	private static TrieNode unshared(TrieNode parent, TrieNode child) {
+		if (!child.isShared()) {
+			return child;
+		}
+		TrieNode copy = new TrieNode(child);
+		parent.addChild(copy);
+		return copy;
+	}
+
+	/**
+	 * Retourne la position d'une lettre parmi les enfants d'un noeud.
+	 * 
+	 * @param c une lettre
+	 * @return la position de la lettre, de 0 à 27
+	 * @throws IllegalArgumentException si le caractère n'est pas une lettre de
+	 *                                  l'arbre
+	 */
+	private static int rank(char c) {
+		if (c >= 'a' && c <= 'z') {
+			return c - 'a';
+		}
+		if (c == '-') {
+			return 26;
+		}
+		if (c == '\'') {
+			return 27;
+		}
+		throw new IllegalArgumentException("Invalid character '" + c + "'");
+	}
+
+	/**
+	 * Vérifie qu'un mot ne contient que des lettres de l'arbre.
+	 * 
+	 * @param word un mot
+	 * @throws IllegalArgumentException si un caractère n'est pas une lettre de
+	 *                                  l'arbre
+	 */
+	private static void checkLetters(String word) {
+		for (int i = 0; i < word.length(); i++) {
+			rank(word.charAt(i));
+		}
+	}
+
+	/**
+	 * Compare deux mots dans l'ordre de l'arbre (lettres, puis '-', puis '\'').
+	 * 
+	 * @param a un mot
+	 * @param b un autre mot
+	 * @return un entier négatif, nul ou positif selon que le premier mot est
+	 *         avant, égal ou après le second
+	 */
+	private static int compare(String a, String b) {
+		int length = Math.min(a.length(), b.length());
+		for (int i = 0; i < length; i++) {
+			int difference = rank(a.charAt(i)) - rank(b.charAt(i));
+			if (difference != 0) {
+				return difference;
+			}
+		}
+		return a.length() - b.length();
+	}
+
+	/**
+	 * Retourne le dernier mot d'un sous-arbre.
+	 * 
+	 * @param node   la racine du sous-arbre
+	 * @param prefix les lettres menant au parent de la racine, complétées par
+	 *               le mot trouvé
+	 * @return le dernier mot du sous-arbre
+	 */
+	private static String lastWord(TrieNode node, StringBuilder prefix) {
+		prefix.append(node.getLetter());
+		for (int i = 27; i >= 0; i--) {
+			TrieNode child = node.getChildren(i);
+			if (child != null) {
+				return lastWord(child, prefix);
+			}
+		}
+		return prefix.toString();
+	}
+
+	/**
+	 * Calcule l'empreinte d'un mot ou d'un préfixe pour les filtres de
+	 * recherche.
+	 * 
+	 * @param s un mot ou un préfixe
+	 * @return l'empreinte
+	 */
+	private static long hash(String s) {
+		long hash = BloomFilter.start();
+		for (int i = 0; i < s.length(); i++) {
+			hash = BloomFilter.step(hash, s.charAt(i));
+		}
+		return BloomFilter.finish(hash);
+	}
+
+	/**
+	 * Calcule, de façon récursive, l'empreinte d'un sous-arbre à partir de ses
+	 * noeuds pris dans l'ordre préfixe, avec leur profondeur et leur marque de
+	 * fin de mot.
+	 * 
+	 * @param node  la racine du sous-arbre
+	 * @param depth la profondeur de la racine
+	 * @param hash  l'état du calcul de l'empreinte
+	 * @return le nouvel état du calcul
+	 */
+	private static long fingerprint(TrieNode node, int depth, long hash) {
+		hash = BloomFilter.step(hash, node.getLetter());
+		hash = BloomFilter.step(hash, (char) (0x100 + (node.isEndWord() ? depth | 0x4000 : depth)));
+		for (int i = 0; i < 28; i++) {
+			TrieNode child = node.getChildren(i);
+			if (child != null) {
+				hash = fingerprint(child, depth + 1, hash);
+			}
+		}
+		return hash;
+	}
+
+	/**
+	 * Compte, de façon récursive, les noeuds d'un sous-arbre.
+	 * 
+	 * @param node la racine du sous-arbre
+	 * @return le nombre de noeuds du sous-arbre, racine comprise
+	 */
+	private static long countNodes(TrieNode node) {
+		long count = 1;
+		for (int i = 0; i < 28; i++) {
+			TrieNode child = node.getChildren(i);
+			if (child != null) {
+				count += countNodes(child);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Ajoute, de façon récursive, les préfixes et les mots d'un sous-arbre aux
+	 * filtres de recherche.
+	 * 
+	 * @param node    le noeud courant
+	 * @param hash    l'état du calcul de l'empreinte des lettres menant au noeud
+	 * @param filters les filtres à remplir
+	 */
+	private static void fillLookupFilters(TrieNode node, long hash, LookupFilters filters) {
+		for (int i = 0; i < 28; i++) {
+			TrieNode child = node.getChildren(i);
+			if (child != null) {
+				long childHash = BloomFilter.step(hash, child.getLetter());
+				long finished = BloomFilter.finish(childHash);
+				filters.prefixes().add(finished);
+				if (child.isEndWord()) {
+					filters.words().add(finished);
+				}
+				fillLookupFilters(child, childHash, filters);
+			}
+		}
+	}
+
+	/**
+	 * Retourne l'index des suffixes, construit lors du premier appel et après
+	 * chaque modification de l'arbre.
+	 * 
+	 * @return l'index des suffixes à jour
+	 */
+	private SuffixIndex suffixIndex() {
+		SuffixIndex index = suffixIndex;
+		if (index == null || index.modificationCount() != modificationCount) {
+			synchronized (this) {
+				index = suffixIndex;
+				if (index == null || index.modificationCount() != modificationCount) {
+					index = new SuffixIndex(this);
+					suffixIndex = index;
+				}
+			}
+		}
+		return index;
+	}
+
 	/**
 	 * Ajoute, de façon récursive, les mots à une collection de mots trouvés.
 	 * 
@@ -211,6 +942,314 @@ public final class LexicographicTree {
 		}
 	}
 
+	/**
+	 * Construit le résultat d'une opération ensembliste en fusionnant les deux
+	 * arbres, éventuellement en parallèle sur les sous-arbres de la racine.
+	 * 
+	 * @param other     le second arbre
+	 * @param operation l'opération à appliquer
+	 * @param parallel  {@code true} pour fusionner les sous-arbres de la racine
+	 *                  en parallèle
+	 * @return le nouvel arbre
+	 */
+	private LexicographicTree combine(LexicographicTree other, SetOperation operation, boolean parallel) {
+		LexicographicTree result = new LexicographicTree();
+		TrieNode[] children = new TrieNode[28];
+		Merger[] mergers = new Merger[28];
+
+		IntStream letters = IntStream.range(0, 28);
+		if (parallel) {
+			letters = letters.parallel();
+		}
+		letters.forEach(i -> {
+			mergers[i] = new Merger(operation);
+			children[i] = mergers[i].merge(root.getChildren(i), other.root.getChildren(i), 1);
+		});
+
+		int common = root.isEndWord() && other.root.isEndWord() ? 1 : 0;
+		for (int i = 0; i < 28; i++) {
+			if (children[i] != null) {
+				result.root.addChild(children[i]);
+			}
+			common += mergers[i].common;
+			result.maxWordLength = Math.max(result.maxWordLength, mergers[i].maxWordLength);
+		}
+		if (operation.keeps(root.isEndWord(), other.root.isEndWord())) {
+			result.root.markAsEndWord();
+		}
+		result.size = operation.size(size, other.size, common);
+		if (operation == SetOperation.UNION) {
+			result.maxWordLength = Math.max(maxWordLength, other.maxWordLength);
+		}
+		// comme pour un arbre construit en insérant ses mots un à un
+		result.modificationCount = result.size;
+		return result;
+	}
+
+	/**
+	 * Cursor over the words of a lexicographic tree, in the order of
+	 * {@link #getWords(String)}. Each word is found by resuming the walk of the
+	 * tree where the previous one stopped, so reading n words after a position
+	 * costs about the depth of the tree plus n. A cursor must not be used while
+	 * the tree is modified.
+	 */
+	public static final class Cursor implements Iterator<String> {
+		private final String to;
+		private TrieNode[] nodes = new TrieNode[16];
+		private int[] nextChild = new int[16];
+		private char[] letters = new char[16];
+		private int depth = 0;
+		private String next;
+		private String last;
+		private final String start;
+		private final boolean inclusive;
+
+		/**
+		 * Positionne le curseur devant le premier mot supérieur (ou égal, si
+		 * {@code inclusive}) à un mot donné : chaque noeud du chemin du mot
+		 * reprendra son parcours après la lettre suivante du mot.
+		 * 
+		 * @param root      la racine de l'arbre
+		 * @param from      le mot de départ
+		 * @param inclusive {@code true} si le mot de départ peut être retourné
+		 * @param to        la borne supérieure (exclue), ou {@code null}
+		 */
+		private Cursor(TrieNode root, String from, boolean inclusive, String to) {
+			this.to = to;
+			this.start = from;
+			this.inclusive = inclusive;
+			nodes[0] = root;
+			int i = 0;
+			while (i < from.length()) {
+				int rank = rank(from.charAt(i));
+				TrieNode child = nodes[depth].getChildren(rank);
+				if (child == null) {
+					nextChild[depth] = rank;
+					checkLetters(from);
+					break;
+				}
+				nextChild[depth] = rank + 1;
+				push(child);
+				i++;
+			}
+			if (depth == from.length() && inclusive && nodes[depth].isEndWord()) {
+				next = from;
+			} else {
+				next = advance();
+			}
+			if (next != null && to != null && compare(next, to) >= 0) {
+				next = null;
+			}
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public String next() {
+			if (next == null) {
+				throw new NoSuchElementException();
+			}
+			last = next;
+			next = advance();
+			if (next != null && to != null && compare(next, to) >= 0) {
+				next = null;
+			}
+			return last;
+		}
+
+		/**
+		 * Returns the next words, at most 'count' of them.
+		 * 
+		 * @param count The maximum number of words
+		 * @return The next words, fewer than 'count' at the end of the tree
+		 */
+		public List<String> next(int count) {
+			List<String> words = new ArrayList<>(Math.min(count, 1024));
+			while (words.size() < count && hasNext()) {
+				words.add(next());
+			}
+			return words;
+		}
+
+		/**
+		 * Returns an opaque token recording the position of the cursor, to
+		 * resume the iteration later with {@link LexicographicTree#resume(String)}.
+		 * 
+		 * @return A token made of URL-safe characters
+		 */
+		public String token() {
+			String position = last != null ? "(" + last : (inclusive ? "[" : "(") + start;
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(position.getBytes(StandardCharsets.UTF_8));
+		}
+
+		/**
+		 * Poursuit le parcours en profondeur jusqu'au mot suivant.
+		 * 
+		 * @return le mot suivant, ou {@code null} s'il n'y en a plus
+		 */
+		private String advance() {
+			while (depth >= 0) {
+				TrieNode node = nodes[depth];
+				int i = nextChild[depth];
+				while (i < 28 && node.getChildren(i) == null) {
+					i++;
+				}
+				if (i == 28) {
+					depth--;
+					continue;
+				}
+				nextChild[depth] = i + 1;
+				TrieNode child = node.getChildren(i);
+				push(child);
+				if (child.isEndWord()) {
+					return new String(letters, 0, depth);
+				}
+			}
+			return null;
+		}
+
+		private void push(TrieNode child) {
+			if (depth + 1 == nodes.length) {
+				nodes = Arrays.copyOf(nodes, nodes.length * 2);
+				nextChild = Arrays.copyOf(nextChild, nodes.length);
+				letters = Arrays.copyOf(letters, nodes.length);
+			}
+			letters[depth] = child.getLetter();
+			depth++;
+			nodes[depth] = child;
+			nextChild[depth] = 0;
+		}
+	}
+
+	/**
+	 * Fusion de deux sous-arbres selon une opération ensembliste. Seuls les
+	 * sous-arbres présents dans les deux arbres sont parcourus : la fusion y
+	 * compte les mots communs, d'où se déduit la taille du résultat, et les
+	 * autres sous-arbres sont partagés sans être parcourus, sauf pour mesurer
+	 * leur plus long mot lorsque le résultat n'est pas une union. Une instance
+	 * n'est utilisée que par un seul thread.
+	 */
+	private static final class Merger {
+		private final SetOperation operation;
+		private int common = 0;
+		private int maxWordLength = 0;
+
+		private Merger(SetOperation operation) {
+			this.operation = operation;
+		}
+
+		/**
+		 * Fusionne deux noeuds de même lettre et de même profondeur.
+		 * 
+		 * @param a     le noeud du premier arbre, ou {@code null}
+		 * @param b     le noeud du second arbre, ou {@code null}
+		 * @param depth la profondeur des noeuds
+		 * @return le noeud du résultat, ou {@code null} s'il ne mène à aucun mot
+		 */
+		private TrieNode merge(TrieNode a, TrieNode b, int depth) {
+			if (a == null && b == null) {
+				return null;
+			}
+			if (a == b) {
+				// sous-arbre déjà partagé par les deux arbres
+				common += countWords(a);
+				return operation == SetOperation.DIFFERENCE ? null : take(a, depth);
+			}
+			switch (operation) {
+			case UNION:
+				if (b == null) {
+					return take(a, depth);
+				}
+				if (a == null) {
+					return take(b, depth);
+				}
+				break;
+			case INTERSECTION:
+				if (a == null || b == null) {
+					return null;
+				}
+				break;
+			case DIFFERENCE:
+				if (a == null) {
+					return null;
+				}
+				if (b == null) {
+					return take(a, depth);
+				}
+				break;
+			}
+
+			TrieNode node = new TrieNode(a.getLetter());
+			boolean hasChild = false;
+			for (int i = 0; i < 28; i++) {
+				TrieNode child = merge(a.getChildren(i), b.getChildren(i), depth + 1);
+				if (child != null) {
+					node.addChild(child);
+					hasChild = true;
+				}
+			}
+			if (a.isEndWord() && b.isEndWord()) {
+				common++;
+			}
+			if (operation.keeps(a.isEndWord(), b.isEndWord())) {
+				node.markAsEndWord();
+				maxWordLength = Math.max(maxWordLength, depth);
+			} else if (!hasChild) {
+				return null;
+			}
+			return node;
+		}
+
+		/**
+		 * Reprend un sous-arbre entier dans le résultat en le partageant : il est
+		 * marqué comme partagé, de sorte que les insertions ultérieures dans l'un
+		 * ou l'autre arbre le copient au lieu de le modifier.
+		 * 
+		 * @param node  la racine du sous-arbre
+		 * @param depth la profondeur de la racine du sous-arbre
+		 * @return le sous-arbre du résultat
+		 */
+		private TrieNode take(TrieNode node, int depth) {
+			node.share();
+			if (operation != SetOperation.UNION) {
+				measure(node, depth);
+			}
+			return node;
+		}
+
+		/**
+		 * Met à jour la longueur du plus long mot avec les mots d'un sous-arbre.
+		 * 
+		 * @param node  la racine du sous-arbre
+		 * @param depth la profondeur de la racine du sous-arbre
+		 */
+		private void measure(TrieNode node, int depth) {
+			if (node.isEndWord()) {
+				maxWordLength = Math.max(maxWordLength, depth);
+			}
+			for (int i = 0; i < 28; i++) {
+				TrieNode child = node.getChildren(i);
+				if (child != null) {
+					measure(child, depth + 1);
+				}
+			}
+		}
+
+		private static int countWords(TrieNode node) {
+			int words = node.isEndWord() ? 1 : 0;
+			for (int i = 0; i < 28; i++) {
+				TrieNode child = node.getChildren(i);
+				if (child != null) {
+					words += countWords(child);
+				}
+			}
+			return words;
+		}
+	}
+
 	/*
 	 * TEST FUNCTIONS
 	 */
@@ -233,10 +1272,17 @@ public final class LexicographicTree {
 		startTime = System.currentTimeMillis();
 		System.out.println("Loading dictionary...");
 		LexicographicTree dico = null;
+		DictionaryLoader.LoadReport report = null;
 		for (int i = 0; i < repeatCount; i++) {
-			dico = new LexicographicTree(filename);
+			dico = new LexicographicTree();
+			try {
+				report = DictionaryLoader.load(Path.of(filename), dico);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
 		}
 		System.out.println("Load time : " + (System.currentTimeMillis() - startTime) / 1000.0);
+		System.out.println("Last load : " + report);
 		System.out.println("Number of words : " + dico.size());
 		System.out.println();
 
@@ -285,6 +1331,37 @@ public final class LexicographicTree {
 		System.out.println("Search time : " + (System.currentTimeMillis() - startTime) / 1000.0);
 		System.out.println();
 
+		// Search non-existing words with the lookup filters
+		System.out.println("Lookup filters : " + dico.enableLookupFilters());
+		startTime = System.currentTimeMillis();
+		System.out.println("Searching non-existing words with lookup filters...");
+		long misses = 0;
+		long falsePositives = 0;
+		for (int i = 0; i < repeatCount; i++) {
+			Scanner input;
+			try {
+				input = new Scanner(file);
+				while (input.hasNextLine()) {
+					String word = input.nextLine() + "xx";
+					boolean found = dico.containsWord(word);
+					if (found) {
+						System.out.println(word + " / " + word.length() + " -> " + found);
+					} else {
+						misses++;
+						if (dico.lookupFilters.words().mightContain(hash(word))) {
+							falsePositives++;
+						}
+					}
+				}
+				input.close();
+			} catch (FileNotFoundException e) {
+				e.printStackTrace();
+			}
+		}
+		System.out.println("Search time : " + (System.currentTimeMillis() - startTime) / 1000.0);
+		System.out.printf("Measured false positives : %.2f%%%n", misses == 0 ? 0 : 100.0 * falsePositives / misses);
+		System.out.println();
+
 		// Search words of increasing length in dictionary
 		startTime = System.currentTimeMillis();
 		System.out.println("Searching for words of increasing length...");
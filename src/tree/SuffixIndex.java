@@ -0,0 +1,305 @@
+package tree;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index des suffixes d'un arbre lexicographique : un tableau des suffixes de
+ * tous les mots, trié, qui répond aux recherches de suffixes comme de
+ * sous-chaînes par une recherche dichotomique.
+ *
+ * L'identifiant d'un mot est son rang dans l'ordre de l'arbre (sa position
+ * dans {@code getWords("")}) : trier des identifiants revient à trier les
+ * mots. Les lettres des mots ne sont stockées qu'une fois, un octet par lettre,
+ * dans un seul tableau où les mots se suivent dans l'ordre de l'arbre, chacun
+ * terminé par un octet nul ; un suffixe est la position de sa première lettre
+ * dans ce tableau, et son mot se retrouve par dichotomie sur les débuts de
+ * mots.
+ */
+final class SuffixIndex {
+	private static final int INSERTION_SORT_THRESHOLD = 16;
+
+	private final int modificationCount;
+	private byte[] letters;
+	private int[] wordStarts;
+	private final int wordCount;
+	private final int[] suffixes;
+
+	/**
+	 * Construit l'index des suffixes des mots d'un arbre.
+	 *
+	 * @param tree l'arbre lexicographique
+	 */
+	SuffixIndex(LexicographicTree tree) {
+		this.modificationCount = tree.modificationCount();
+		this.letters = new byte[1024];
+		this.wordStarts = new int[1024];
+		int[] counts = new int[2]; // nombre de mots, nombre d'octets
+		collectWords(tree.root(), new byte[tree.maxWordLength() + 1], 0, counts);
+		this.wordCount = counts[0];
+		this.letters = Arrays.copyOf(letters, counts[1]);
+		this.wordStarts = Arrays.copyOf(wordStarts, wordCount);
+
+		int suffixCount = counts[1] - wordCount;
+		this.suffixes = new int[suffixCount];
+		for (int position = 0, i = 0; position < letters.length; position++) {
+			if (letters[position] != 0) {
+				suffixes[i++] = position;
+			}
+		}
+		sort(0, suffixCount, 0);
+	}
+
+	/**
+	 * @return le compteur de modifications de l'arbre lors de la construction
+	 */
+	int modificationCount() {
+		return modificationCount;
+	}
+
+	/**
+	 * Retourne les mots se terminant par un suffixe, dans l'ordre de l'arbre
+	 * lexicographique.
+	 *
+	 * @param suffix le suffixe
+	 * @return les mots se terminant par le suffixe
+	 */
+	List<String> wordsWithSuffix(String suffix) {
+		if (suffix.isEmpty()) {
+			return words(allIds(), wordCount);
+		}
+		byte[] key = toBytes(suffix, true);
+		return key == null ? new ArrayList<>() : wordsMatching(key);
+	}
+
+	/**
+	 * Retourne les mots contenant une chaîne non vide, dans l'ordre de l'arbre
+	 * lexicographique.
+	 *
+	 * @param infix la chaîne recherchée
+	 * @return les mots contenant la chaîne
+	 */
+	List<String> wordsContaining(String infix) {
+		byte[] key = toBytes(infix, false);
+		return key == null ? new ArrayList<>() : wordsMatching(key);
+	}
+
+	/*
+	 * PRIVATE METHODS
+	 */
+
+	/**
+	 * Retourne les mots dont un suffixe commence par une clé, sans doublon.
+	 *
+	 * @param key les octets recherchés
+	 * @return les mots trouvés, dans l'ordre de l'arbre
+	 */
+	private List<String> wordsMatching(byte[] key) {
+		int from = bound(key, false);
+		int to = bound(key, true);
+		int[] ids = new int[to - from];
+		for (int i = from; i < to; i++) {
+			ids[i - from] = wordId(suffixes[i]);
+		}
+		Arrays.sort(ids);
+		int count = 0;
+		for (int i = 0; i < ids.length; i++) {
+			if (count == 0 || ids[count - 1] != ids[i]) {
+				ids[count++] = ids[i];
+			}
+		}
+		return words(ids, count);
+	}
+
+	private List<String> words(int[] ids, int count) {
+		List<String> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int start = wordStarts[ids[i]];
+			int end = start;
+			while (letters[end] != 0) {
+				end++;
+			}
+			result.add(new String(letters, start, end - start, StandardCharsets.ISO_8859_1));
+		}
+		return result;
+	}
+
+	private int[] allIds() {
+		int[] ids = new int[wordCount];
+		for (int i = 0; i < wordCount; i++) {
+			ids[i] = i;
+		}
+		return ids;
+	}
+
+	/**
+	 * Retourne l'identifiant du mot contenant une position : le dernier mot
+	 * commençant avant elle.
+	 *
+	 * @param position une position dans le tableau des lettres
+	 * @return l'identifiant du mot
+	 */
+	private int wordId(int position) {
+		int index = Arrays.binarySearch(wordStarts, position);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	/**
+	 * Recherche par dichotomie la borne de l'intervalle des suffixes commençant
+	 * par une clé.
+	 *
+	 * @param key   les octets recherchés
+	 * @param upper {@code true} pour la borne supérieure (exclue),
+	 *              {@code false} pour la borne inférieure
+	 * @return la position de la borne dans le tableau des suffixes
+	 */
+	private int bound(byte[] key, boolean upper) {
+		int low = 0, high = suffixes.length;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			int comparison = comparePrefix(suffixes[middle], key);
+			if (comparison < 0 || upper && comparison == 0) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Compare le début d'un suffixe à une clé.
+	 *
+	 * @param position la position du suffixe
+	 * @param key      les octets recherchés
+	 * @return un entier négatif, nul ou positif selon que le suffixe est avant la
+	 *         clé, commence par la clé ou est après la clé
+	 */
+	private int comparePrefix(int position, byte[] key) {
+		for (int i = 0; i < key.length; i++) {
+			int b = letters[position + i];
+			if (b != key[i]) {
+				return b - key[i];
+			}
+			if (b == 0) {
+				return 0;
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Convertit une chaîne en octets, éventuellement suivie de l'octet de fin de
+	 * mot.
+	 *
+	 * @param s      la chaîne
+	 * @param ending {@code true} pour ajouter l'octet de fin de mot
+	 * @return les octets, ou {@code null} si la chaîne contient un caractère
+	 *         absent des mots
+	 */
+	private static byte[] toBytes(String s, boolean ending) {
+		byte[] bytes = new byte[s.length() + (ending ? 1 : 0)];
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (!(c >= 'a' && c <= 'z' || c == '-' || c == '\'')) {
+				return null;
+			}
+			bytes[i] = (byte) c;
+		}
+		return bytes;
+	}
+
+	/**
+	 * Copie, de façon récursive, les mots d'un sous-arbre dans le tableau des
+	 * lettres, dans l'ordre de l'arbre.
+	 *
+	 * @param node   le noeud courant
+	 * @param word   les lettres menant au noeud courant
+	 * @param length le nombre de lettres menant au noeud courant
+	 * @param counts le nombre de mots et d'octets déjà copiés
+	 */
+	private void collectWords(TrieNode node, byte[] word, int length, int[] counts) {
+		if (node.isEndWord()) {
+			if (counts[0] == wordStarts.length) {
+				wordStarts = Arrays.copyOf(wordStarts, counts[0] * 2);
+			}
+			if (counts[1] + length + 1 > letters.length) {
+				letters = Arrays.copyOf(letters, Math.max(letters.length * 2, counts[1] + length + 1));
+			}
+			wordStarts[counts[0]++] = counts[1];
+			System.arraycopy(word, 0, letters, counts[1], length);
+			letters[counts[1] + length] = 0;
+			counts[1] += length + 1;
+		}
+		for (int i = 0; i < 28; i++) {
+			TrieNode child = node.getChildren(i);
+			if (child != null) {
+				word[length] = (byte) child.getLetter();
+				collectWords(child, word, length + 1, counts);
+			}
+		}
+	}
+
+	/**
+	 * Trie une partie du tableau des suffixes par un tri rapide à trois voies
+	 * sur les octets (les suffixes ont déjà leurs {@code depth} premiers octets
+	 * en commun).
+	 *
+	 * @param from  le début de la partie (inclus)
+	 * @param to    la fin de la partie (exclue)
+	 * @param depth le nombre d'octets communs
+	 */
+	private void sort(int from, int to, int depth) {
+		while (to - from > 1) {
+			if (to - from < INSERTION_SORT_THRESHOLD) {
+				insertionSort(from, to, depth);
+				return;
+			}
+			int pivot = letters[suffixes[(from + to) >>> 1] + depth];
+			int lower = from, greater = to - 1, i = from;
+			while (i <= greater) {
+				int b = letters[suffixes[i] + depth];
+				if (b < pivot) {
+					swap(lower++, i++);
+				} else if (b > pivot) {
+					swap(i, greater--);
+				} else {
+					i++;
+				}
+			}
+			sort(from, lower, depth);
+			sort(greater + 1, to, depth);
+			if (pivot == 0) {
+				return; // suffixes identiques
+			}
+			from = lower;
+			to = greater + 1;
+			depth++;
+		}
+	}
+
+	private void insertionSort(int from, int to, int depth) {
+		for (int i = from + 1; i < to; i++) {
+			for (int j = i; j > from && compare(suffixes[j - 1], suffixes[j], depth) > 0; j--) {
+				swap(j - 1, j);
+			}
+		}
+	}
+
+	private int compare(int a, int b, int depth) {
+		for (int i = depth;; i++) {
+			int x = letters[a + i], y = letters[b + i];
+			if (x != y || x == 0) {
+				return x - y;
+			}
+		}
+	}
+
+	private void swap(int i, int j) {
+		int tmp = suffixes[i];
+		suffixes[i] = suffixes[j];
+		suffixes[j] = tmp;
+	}
+}
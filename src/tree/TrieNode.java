@@ -3,28 +3,53 @@ package tree;
 /**
  * Classe représentant un noeud de la structure en arbre Trie (destiné à l'arbe
  * lexicographique).
+ *
+ * Hors du paquetage, un noeud ne peut qu'être lu : seul l'arbre lexicographique
+ * crée et modifie ses noeuds, ce qui garantit que ses compteurs, ses filtres et
+ * son éventuelle lecture seule restent cohérents avec son contenu.
  */
 public final class TrieNode {
 
 	private final char letter;
 	private TrieNode[] children;
 	private boolean isEndWord = false;
+	private boolean shared = false;
 
 	/**
 	 * Crée un noeud de la structure en arbre Trie.
 	 * 
 	 * @param letter la lettre représentée par le noeud
 	 */
-	public TrieNode(char letter) {
+	TrieNode(char letter) {
 		this.letter = letter;
 	}
 
+	/**
+	 * Crée une copie d'un noeud partagé, que l'arbre qui la crée peut modifier.
+	 * Les enfants ne sont pas copiés : ils sont marqués comme partagés à leur
+	 * tour.
+	 * 
+	 * @param node le noeud à copier
+	 */
+	TrieNode(TrieNode node) {
+		this.letter = node.letter;
+		this.isEndWord = node.isEndWord;
+		if (node.children != null) {
+			this.children = node.children.clone();
+			for (TrieNode child : this.children) {
+				if (child != null) {
+					child.shared = true;
+				}
+			}
+		}
+	}
+
 	/**
 	 * Ajoute un noeud à l'arbre Trie.
 	 * 
 	 * @param node le noeud Trie à ajouter
 	 */
-	public void addChild(TrieNode node) {
+	void addChild(TrieNode node) {
 		/*
 		 * Pour consommer moins d'espace (CST), on initialise le tableau de 28
 		 * caractères le plus tard possible (Lazy-Loading).
@@ -79,10 +104,27 @@ public final class TrieNode {
 	/**
 	 * Marque le noeud en tant que fin d'un mot.
 	 */
-	public void markAsEndWord() {
+	void markAsEndWord() {
 		isEndWord = true;
 	}
 
+	/**
+	 * Marque le noeud, et donc son sous-arbre, comme partagé entre plusieurs
+	 * arbres : un arbre qui insère un mot en passant par ce noeud le copie au
+	 * lieu de le modifier.
+	 */
+	void share() {
+		shared = true;
+	}
+
+	/**
+	 * @return la valeur {@code true} si le noeud est partagé entre plusieurs
+	 *         arbres, {@code false} sinon
+	 */
+	boolean isShared() {
+		return shared;
+	}
+
 	/**
 	 * @return la lettre du noeud
 	 */
@@ -3,12 +3,14 @@ package boggle;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Test;
 
+import tree.DictionaryRegistry;
 import tree.LexicographicTree;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import java.util.TreeSet;
 
@@ -23,7 +25,7 @@ public class BoggleTest {
 	@BeforeAll
 	private static void initTestDictionary() {
 		System.out.print("Loading dictionary...");
-		dictionary = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt");
+		dictionary = DictionaryRegistry.shared().get("mots/dictionnaire_FR_sans_accents.txt");
 		System.out.println(" done.");
 	}
 
@@ -63,6 +65,45 @@ public class BoggleTest {
 		assertFalse(b.contains("asas"));
 	}
 	
+	@Test
+	void containsRejectsImpossibleWords() {
+		Boggle b = new Boggle(4, GRID_LETTERS, dictionary);
+
+		assertFalse(b.contains(""));
+		assertFalse(b.contains("zut")); // première lettre absente
+		assertFalse(b.contains("rr")); // bigramme absent de la grille
+		assertFalse(b.contains("sonsonsonsonsonson")); // plus long que la grille
+		assertFalse(b.contains("SON"));
+	}
+
+	@Test
+	void containsLettersOutsideDictionaryAlphabet() {
+		Boggle b = new Boggle(2, "CESX", dictionary); // C E / S X
+
+		assertTrue(b.contains("CES"));
+		assertTrue(b.contains("XSE"));
+		assertFalse(b.contains("CXC"));
+		assertFalse(b.contains("ces"));
+		assertTrue(b.containsAll(Arrays.asList("CES", "EX")));
+		assertFalse(b.containsAll(Arrays.asList("CES", "ces")));
+
+		Boggle mixed = new Boggle(2, "aÉtr", dictionary); // a É / t r
+		assertTrue(mixed.contains("aÉt"));
+		assertTrue(mixed.contains("Étra"));
+		assertFalse(mixed.contains("aÉÉ"));
+	}
+
+	@Test
+	void containsAllWords() {
+		Boggle b = new Boggle(4, GRID_LETTERS, dictionary);
+
+		assertTrue(b.containsAll(EXPECTED_WORDS));
+		assertTrue(b.containsAll(Arrays.asList("son", "sons", "son")));
+		assertTrue(b.containsAll(List.of()));
+		assertFalse(b.containsAll(Arrays.asList("songent", "sono")));
+		assertFalse(b.containsAll(Arrays.asList("songent", "zut")));
+	}
+
 	@Test
 	void solve4x4() {
 		LexicographicTree dict = new LexicographicTree();
@@ -98,6 +139,108 @@ public class BoggleTest {
 		assertEquals("a r\nt e\n", b.toString());
 	}
 	
+	@Test
+	void recordOccurrences() {
+		LexicographicTree dict = new LexicographicTree();
+		dict.insertWord("rate");
+		dict.insertWord("aaa");
+		Boggle b = new Boggle(2, "rate", dict);
+		b.recordOccurrences(10);
+
+		assertEquals(Set.of("rate"), b.solve());
+		assertEquals(1, b.occurrences().pathCount("rate"));
+		assertArrayEquals(new int[] {0, 1, 2, 3}, b.occurrences().path("rate", 0));
+
+		// la résolution par tuiles enregistre aussi les chemins
+		assertEquals(Set.of(), b.solveFrom(new int[] {1, 2, 3}));
+		assertEquals(0, b.occurrences().pathCount());
+		assertEquals(Set.of("rate"), b.solveFrom(new int[] {0}));
+		assertArrayEquals(new int[] {0, 1, 2, 3}, b.occurrences().path("rate", 0));
+
+		// 4 x 3 x 2 chemins possibles, limités à 5
+		b = new Boggle(2, "aaaa", dict);
+		b.recordOccurrences(5);
+		assertEquals(Set.of("aaa"), b.solve());
+		assertEquals(5, b.occurrences().pathCount("aaa"));
+		assertEquals(5, b.occurrences().pathCount());
+		assertEquals(0, b.occurrences().pathCount("rate"));
+
+		b.recordOccurrences(0);
+		b.solve();
+		assertNull(b.occurrences());
+	}
+
+	@Test
+	void recordStats() {
+		LexicographicTree dict = new LexicographicTree();
+		dict.insertWord("art");
+		dict.insertWord("rate");
+		dict.insertWord("rat");
+		Boggle b = new Boggle(2, "arte", dict);
+
+		b.solve();
+		assertNull(b.stats());
+
+		b.recordStats(true);
+		b.solve();
+		SolveStats stats = b.stats();
+		assertNotNull(stats);
+		assertEquals(3, stats.wordsFound());
+		assertEquals(3, stats.dictionaryHits());
+		assertEquals(4, stats.maxDepth());
+		assertTrue(stats.nodesVisited() >= 4 + stats.prefixRejections());
+		assertEquals(4, stats.startCellNanos().length);
+		assertTrue(stats.solveNanos() > 0);
+
+		b.recordStats(false);
+		b.solve();
+		assertNull(b.stats());
+	}
+
+	@Test
+	void tiledSolveMatchesSolve() {
+		LexicographicTree dict = new LexicographicTree();
+		for (int n = 3; n <= 5; n++) {
+			for (String word : dictionary.getWordsOfLength(n)) {
+				dict.insertWord(word);
+			}
+		}
+		Random random = new Random(42);
+		StringBuilder letters = new StringBuilder();
+		for (int i = 0; i < 30 * 30; i++) {
+			letters.append("eeeaaiinorstulcdmp".charAt(random.nextInt(18)));
+		}
+		Set<String> expected = new Boggle(30, letters.toString(), dict).solve();
+
+		TiledBoggleSolver solver = new TiledBoggleSolver(30, letters.toString(), dict, 7);
+		assertEquals(25, solver.tileCount());
+		assertEquals(expected, solver.solve());
+		assertEquals(expected, solver.solve(4));
+	}
+
+	@Test
+	void gridOptimizer() {
+		GridOptimizer optimizer = new GridOptimizer(4, dictionary);
+		GridOptimizer.GridScore wikipedia = optimizer.evaluate(GRID_LETTERS);
+		assertEquals(EXPECTED_WORDS.size(), wikipedia.words());
+
+		List<GridOptimizer.GridScore> first = optimizer.optimize(7, 2, 60_000, 500);
+		List<GridOptimizer.GridScore> second = optimizer.optimize(7, 2, 60_000, 500);
+		assertEquals(2, first.size());
+		assertEquals(first, second);
+		for (GridOptimizer.GridScore grid : first) {
+			assertEquals(500, grid.steps());
+			assertEquals(grid.words(), new Boggle(4, grid.letters(), dictionary).solve().size());
+		}
+
+		GridOptimizer.GridScore target = new GridOptimizer(4, dictionary, 40, 0).optimize(3, 1, 60_000, 20_000).get(0);
+		assertEquals(40, target.words());
+
+		assertThrows(IllegalArgumentException.class, () -> optimizer.optimize(7, 0, 1_000));
+		assertThrows(IllegalArgumentException.class, () -> optimizer.optimize(7, 1, 0));
+		assertThrows(IllegalArgumentException.class, () -> optimizer.optimize(7, 1, 1_000, -1));
+	}
+
 	@Test
 	void solve4x4English() { // 3236 loop
 		List<String> expected = Arrays.asList("ees", "eess", "ere", "eres", "erg", "ert", "erusse", "erusser", "erustes", "esn", "ess", "est", "esu", "ets", "eue", "eues", "eur", "eure", "eus", "eusse", "eut", "eutes", "eutm", "fee", "feer", "fees", "fer", "feret", "ferets", "fert", "feru", "ferue", "ferues", "ferus", "fes", "fessu", "fessue", "fessy", "fet", "fetu", "fetus", "feu", "feue", "feues", "feur", "feure", "feurer", "feures", "feus", "feutre", "feutrer", "feutres", "fre", "free", "frere", "freres", "fressure", "fret", "frets", "freusse", "freusser", "fse", "fss", "gre", "gree", "greer", "grees", "gref", "gres", "gress", "gressy", "gru", "grue", "gruee", "gruees", "gruer", "grues", "grusse", "grust", "grute", "grutee", "gruter", "grutes", "gtr", "gtt", "gue", "guee", "gueer", "guees", "guer", "guere", "gueres", "gueret", "guerets", "gues", "guess", "guet", "guets", "guett", "gur", "gus", "guse", "guses", "guss", "gusse", "guster", "gut", "guts", "gutte", "guy", "mss", "mst", "mts", "mtu", "mys", "myste", "mystere", "mystes", "myt", "myure", "myures", "nsf", "nsu", "ree", "reer", "rees", "reest", "reet", "ref", "refre", "refs", "rer", "rerue", "rerues", "res", "ressu", "ressue", "ressuer", "ressut", "rest", "resu", "resue", "resuer", "resure", "resut", "ret", "rets", "retu", "retue", "retuer", "retus", "retut", "rety", "reu", "reus", "reuse", "reuser", "reuses", "reuss", "reusse", "reut", "reute", "reuter", "rtg", "rtt", "rue", "ruee", "ruees", "ruer", "rues", "rug", "rus", "ruse", "rusee", "ruser", "ruses", "russ", "russe", "russy", "rust", "rut", "rute", "ruts", "rutter", "ruy", "see", "ser", "sere", "serf", "serfs", "sert", "ses", "sestu", "sesue", "set", "sets", "seu", "seur", "seurer", "smts", "sns", "sse", "ssf", "sss", "ssss", "sst", "ssu", "ste", "stere", "sterer", "stert", "stes", "stm", "sts", "stuer", "sue", "suee", "suees", "suer", "sues", "suet", "suets", "sur", "sure", "sures", "suret", "surets", "sut", "sutes", "suttee", "tee", "tef", "tefs", "ter", "terf", "terfs", "tergu", "tes", "tessure", "teu", "teug", "tms", "tre", "tref", "trefe", "trefes", "trefs", "tres", "tressue", "tressuer", "trest", "trests", "trets", "treu", "trg", "tru", "truss", "trust", "truste", "trustee", "truster", "trustes", "trusts", "trut", "trute", "truter", "trutes", "tse", "tsf", "tsm", "tss", "tsss", "tsu", "tte", "ttm", "ttr", "tts", "ttu", "tue", "tuee", "tuees", "tuer", "tues", "tug", "tur", "tus", "tuss", "tusse", "tust", "tuste", "tustee", "tuster", "tustes", "tusts", "tut", "tute", "tuter", "tutes", "tuy", "tuysse", "tuyssee", "tuysser", "tuysses", "uee", "uess", "ure", "uree", "urees", "ures", "urt", "use", "usee", "user", "uses", "usn", "uss", "usse", "ussy", "uster", "ute", "utes", "utm", "utr", "uts", "utt", "ymt", "yss", "ytres", "yue", "yues", "yug", "yur", "yuste", "yut");
@@ -116,4 +259,18 @@ public class BoggleTest {
 		assertEquals("m s s n\ny t s s\nt u e f\ng r e r\n", b.toString());
 	}
 
+	@Test
+	void solveCache() {
+		SolveCache cache = new SolveCache(8);
+		assertEquals(EXPECTED_WORDS, cache.solve(4, GRID_LETTERS, dictionary));
+		assertEquals(EXPECTED_WORDS, cache.solve(4, GRID_LETTERS, dictionary));
+		assertEquals(1, cache.stats().hits());
+		assertEquals(1, cache.stats().misses());
+
+		LexicographicTree dict = new LexicographicTree();
+		dict.insertWord("ces");
+		assertEquals(Set.of("ces"), cache.solve(4, GRID_LETTERS, dict));
+		assertEquals(2, cache.stats().misses());
+	}
+
 }
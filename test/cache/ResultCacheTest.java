@@ -0,0 +1,106 @@
+package cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ResultCacheTest {
+
+	@Test
+	void get_LeastRecentlyUsed() {
+		ResultCache<String> cache = new ResultCache<>(2);
+		assertEquals("A", cache.get("a", () -> "A"));
+		assertEquals("B", cache.get("b", () -> "B"));
+		assertEquals("A", cache.get("a", () -> "X")); // a devient le plus récent
+		assertEquals("C", cache.get("c", () -> "C")); // évince b
+		assertEquals("B2", cache.get("b", () -> "B2"));
+		assertEquals("C", cache.get("c", () -> "X"));
+
+		ResultCache.Stats stats = cache.stats();
+		assertEquals(2, stats.hits());
+		assertEquals(4, stats.misses());
+		assertEquals(2, stats.evictions());
+		assertEquals(2, stats.size());
+		assertEquals(1 / 3.0, stats.hitRate(), 1e-9);
+		assertThrows(IllegalArgumentException.class, () -> new ResultCache<String>(0));
+	}
+
+	@Test
+	void get_SingleComputation() throws Exception {
+		ResultCache<String> cache = new ResultCache<>(10);
+		AtomicInteger computations = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			List<Future<String>> results = new ArrayList<>();
+			results.add(executor.submit(() -> cache.get("key", () -> {
+				computations.incrementAndGet();
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return "value";
+			})));
+			started.await();
+			for (int i = 0; i < 3; i++) {
+				results.add(executor.submit(() -> cache.get("key", () -> {
+					computations.incrementAndGet();
+					return "other";
+				})));
+			}
+			Thread.sleep(50);
+			release.countDown();
+			for (Future<String> result : results) {
+				assertEquals("value", result.get());
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertEquals(1, computations.get());
+		assertEquals(1, cache.stats().misses());
+		assertEquals(3, cache.stats().hits());
+
+		assertThrows(IllegalStateException.class, () -> cache.get("failure", () -> {
+			throw new IllegalStateException("failure");
+		}));
+		assertEquals("retry", cache.get("failure", () -> "retry"));
+	}
+
+	@Test
+	void get_Spill() throws IOException {
+		Path directory = Files.createTempDirectory("cache");
+		try {
+			ResultCache<String> cache = new ResultCache<>(1, directory);
+			assertEquals("A", cache.get("a", () -> "A"));
+			assertEquals("B", cache.get("b", () -> "B")); // évince a de la mémoire
+			assertEquals("A", cache.get("a", () -> "X"));
+			assertEquals(1, cache.stats().diskHits());
+
+			ResultCache<String> restarted = new ResultCache<>(10, directory);
+			assertEquals("B", restarted.get("b", () -> "X"));
+			assertEquals(0, restarted.stats().misses());
+			assertEquals(0, restarted.stats().spillErrors());
+		} finally {
+			try (var files = Files.list(directory)) {
+				for (Path file : files.toList()) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(directory);
+		}
+	}
+}
@@ -3,27 +3,34 @@ package cryptanalysis;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.PrintStream;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.jupiter.api.BeforeAll;
 
+import tree.DictionaryRegistry;
 import tree.LexicographicTree;
 
 
 public class DictionaryBasedAnalysisTest {
 	private static final String LETTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ";
 	private static final String CRYPTOGRAM_FILE = "txt/Plus fort que Sherlock Holmes (cryptogram).txt";
+	private static final String CORPUS_FILE = "txt/Plus fort que Sherlock Holmes.txt";
 	private static final String ENCODING_ALPHABET = "YESUMZRWFNVHOBJTGPCDLAIXQK"; // Sherlock
 	private static final String DECODING_ALPHABET = "VNSTBIQLWOZUEJMRYGCPDKHXAF"; // Sherlock
 	private static LexicographicTree dictionary = null;
 
 	@BeforeAll
 	private static void initTestDictionary() {
-		dictionary = new LexicographicTree("mots/dictionnaire_FR_sans_accents.txt");
+		dictionary = DictionaryRegistry.shared().get("mots/dictionnaire_FR_sans_accents.txt");
 	}
 	
 	@Test
@@ -34,6 +41,15 @@ public class DictionaryBasedAnalysisTest {
 		assertEquals(message, DictionaryBasedAnalysis.applySubstitution(encoded, DECODING_ALPHABET));
 	}
 
+	@Test
+	void applySubstitutionLenientTest() {
+		// seules les lettres 'A' à 'Z' sont substituées
+		assertEquals("Ybc é, Ê !", DictionaryBasedAnalysis.applySubstitution("Abc é, Ê !", ENCODING_ALPHABET));
+		// l'alphabet n'est pas vérifié : les lettres au-delà de sa fin sont inchangées
+		assertEquals("ZZ, C !", DictionaryBasedAnalysis.applySubstitution("AB, C !", "ZZ"));
+		assertEquals("", DictionaryBasedAnalysis.applySubstitution("", ENCODING_ALPHABET));
+	}
+
 	@Test
 	void guessApproximatedAlphabetTest() {
 		String cryptogram = readFile(CRYPTOGRAM_FILE, StandardCharsets.UTF_8);
@@ -47,6 +63,248 @@ public class DictionaryBasedAnalysisTest {
 		assertTrue(score >= 9, "Moins de 9 correspondances trouvées [" + score + "]");
 	}
 	
+	@Test
+	void guessApproximatedAlphabetWithCandidatesTest() {
+		String cryptogram = readFile(CRYPTOGRAM_FILE, StandardCharsets.UTF_8);
+		String alphabet = new DictionaryBasedAnalysis(cryptogram, dictionary).guessApproximatedAlphabet(LETTERS, 4);
+		int score = 0;
+		for (int i = 0; i < DECODING_ALPHABET.length(); i++) {
+			if (DECODING_ALPHABET.charAt(i) == alphabet.charAt(i)) score++;
+		}
+		assertTrue(score >= 9, "Moins de 9 correspondances trouvées [" + score + "]");
+		assertEquals(alphabet, new DictionaryBasedAnalysis(cryptogram, dictionary).guessApproximatedAlphabet(LETTERS, 4));
+	}
+
+	@Test
+	void quadgramAnalysisTest() {
+		String cryptogram = readFile(CRYPTOGRAM_FILE, StandardCharsets.UTF_8);
+		QuadgramStatistics statistics = new QuadgramStatistics(readFile(CORPUS_FILE, StandardCharsets.UTF_8), dictionary);
+		QuadgramAnalysis analysis = new QuadgramAnalysis(cryptogram, dictionary, statistics);
+		assertTrue(analysis.fitness(DECODING_ALPHABET) > analysis.fitness(LETTERS));
+
+		String alphabet = analysis.guessAlphabet(1, 4, 30_000);
+		int score = 0;
+		for (int i = 0; i < DECODING_ALPHABET.length(); i++) {
+			if (DECODING_ALPHABET.charAt(i) == alphabet.charAt(i)) score++;
+		}
+		assertTrue(score >= 20, "Moins de 20 correspondances trouvées [" + score + "]");
+		assertEquals(alphabet, analysis.guessAlphabet(1, 4, 30_000));
+		assertThrows(IllegalArgumentException.class, () -> analysis.guessAlphabet(1, 0, 30_000));
+		assertThrows(IllegalArgumentException.class, () -> analysis.guessAlphabet(1, 4, -1));
+	}
+
+	@Test
+	void constraintSolverTest() {
+		String cryptogram = readFile(CRYPTOGRAM_FILE, StandardCharsets.UTF_8);
+		ConstraintSolver.Solution solution = new ConstraintSolver(cryptogram, dictionary).solve(100, 200_000);
+		assertEquals(100, solution.words());
+		assertEquals(100, solution.decodedWords());
+		assertTrue(solution.exhaustive());
+
+		// Les lettres déterminées sont exactes, les autres sont signalées
+		for (int i = 0; i < DECODING_ALPHABET.length(); i++) {
+			char letter = (char) ('A' + i);
+			if (solution.undeterminedLetters().indexOf(letter) < 0) {
+				assertEquals(DECODING_ALPHABET.charAt(i), solution.alphabet().charAt(i), "Lettre " + letter);
+			}
+		}
+		assertTrue(solution.undeterminedLetters().length() <= 6);
+		assertDoesNotThrow(() -> new SubstitutionAlphabet(solution.alphabet()));
+	}
+
+	@Test
+	void analysisListenerTest() {
+		String cryptogram = readFile(CRYPTOGRAM_FILE, StandardCharsets.UTF_8);
+		List<Integer> lengths = new ArrayList<>();
+		List<AnalysisListener.Improvement> improvements = new ArrayList<>();
+		long[] tried = new long[1];
+		String[] finished = new String[1];
+		long[] counters = new long[2];
+
+		DictionaryBasedAnalysis dba = new DictionaryBasedAnalysis(cryptogram, dictionary);
+		dba.setListener(new AnalysisListener() {
+			public void lengthStarted(int length) {
+				lengths.add(length);
+			}
+
+			public void candidateTried(String cryptogramWord, String candidate, int score) {
+				tried[0]++;
+			}
+
+			public void scoreImproved(Improvement improvement) {
+				improvements.add(improvement);
+			}
+
+			public void finished(String alphabet, long candidatesEvaluated, long dictionaryLookups) {
+				finished[0] = alphabet;
+				counters[0] = candidatesEvaluated;
+				counters[1] = dictionaryLookups;
+			}
+		});
+		String alphabet = dba.guessApproximatedAlphabet(LETTERS);
+
+		assertEquals(alphabet, finished[0]);
+		assertEquals(tried[0], counters[0]);
+		assertTrue(counters[1] > counters[0]);
+		for (int i = 1; i < lengths.size(); i++) {
+			assertTrue(lengths.get(i) < lengths.get(i - 1));
+		}
+		for (int i = 1; i < improvements.size(); i++) {
+			assertTrue(improvements.get(i).score() > improvements.get(i - 1).score());
+			assertEquals(improvements.get(i - 1).newAlphabet(), improvements.get(i).previousAlphabet());
+		}
+		assertEquals(alphabet, improvements.get(improvements.size() - 1).newAlphabet());
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		new ConsoleAnalysisListener(new PrintStream(out, true)).lengthStarted(12);
+		assertEquals(">>> Words of length 12" + System.lineSeparator(), out.toString());
+	}
+
+	@Test
+	void batchAnalysisTest() {
+		String cryptogram = readFile(CRYPTOGRAM_FILE, StandardCharsets.UTF_8);
+		int third = cryptogram.indexOf(' ', cryptogram.length() / 3);
+		List<String> cryptograms = List.of(cryptogram.substring(0, third), cryptogram.substring(third), cryptogram);
+
+		String[] alphabets = new String[cryptograms.size()];
+		BatchAnalysis.Summary summary = new BatchAnalysis(dictionary, 2).analyze(cryptograms, LETTERS, result -> {
+			assertNull(alphabets[result.index()]);
+			assertTrue(result.latencyNanos() >= result.analysisNanos());
+			alphabets[result.index()] = result.alphabet();
+		});
+		assertEquals(3, summary.messages());
+		assertTrue(summary.messagesPerSecond() > 0);
+		for (int i = 0; i < cryptograms.size(); i++) {
+			assertEquals(new DictionaryBasedAnalysis(cryptograms.get(i), dictionary).guessApproximatedAlphabet(LETTERS),
+					alphabets[i]);
+		}
+	}
+
+	@Test
+	void streamingDecoderTest() throws IOException {
+		String text = "DEMANDE RENFORTS IMMÉDIATEMENT, À L'ÉTÉ ! " + readFile(CRYPTOGRAM_FILE, StandardCharsets.UTF_8);
+		Path input = Files.createTempFile("cryptogram", ".txt");
+		Path output = Files.createTempFile("decoded", ".txt");
+		try {
+			Files.writeString(input, text, StandardCharsets.UTF_8);
+			SubstitutionAlphabet alphabet = new SubstitutionAlphabet(DECODING_ALPHABET);
+
+			// Blocs de 7 octets : des caractères UTF-8 sont coupés entre deux blocs
+			assertEquals(Files.size(input), new StreamingDecoder(alphabet, 7, 3).decode(input, output));
+			assertEquals(alphabet.apply(text), Files.readString(output, StandardCharsets.UTF_8));
+
+			new StreamingDecoder(alphabet).decode(input, output);
+			assertEquals(alphabet.apply(text), Files.readString(output, StandardCharsets.UTF_8));
+
+			// Entrée et sortie identiques : refusé sans toucher au fichier
+			assertThrows(IllegalArgumentException.class, () -> new StreamingDecoder(alphabet).decode(input, input));
+			assertEquals(text, Files.readString(input, StandardCharsets.UTF_8));
+		} finally {
+			Files.deleteIfExists(input);
+			Files.deleteIfExists(output);
+		}
+	}
+
+	@Test
+	void substitutionAlphabetTest() {
+		SubstitutionAlphabet encoding = new SubstitutionAlphabet(ENCODING_ALPHABET);
+		assertEquals(ENCODING_ALPHABET, encoding.toString());
+		assertEquals(DECODING_ALPHABET, encoding.inverse().toString());
+		assertEquals('Y', encoding.substitute('A'));
+		assertEquals('A', encoding.original('Y'));
+
+		char[] buffer = new char[64];
+		encoding.apply("DEMANDE RENFORTS", buffer);
+		assertEquals("UMOYBUM PMBZJPDC", new String(buffer, 0, 16));
+
+		SubstitutionAlphabet swapped = new SubstitutionAlphabet(encoding);
+		swapped.swapSubstitutes('Y', 'E');
+		assertEquals("EYSUMZRWFNVHOBJTGPCDLAIXQK", swapped.toString());
+		assertEquals('B', swapped.original('Y'));
+		assertNotEquals(encoding, swapped);
+		swapped.swapSubstitutes('E', 'Y');
+		assertEquals(encoding, swapped);
+
+		assertThrows(IllegalArgumentException.class, () -> new SubstitutionAlphabet("AABCDEFGHIJKLMNOPQRSTUVWXY"));
+	}
+
+	@Test
+	void cryptogramWordsTest() {
+		CryptogramWords words = CryptogramWords.tokenize("Aujourd'hui, l'arc-en-ciel* ELLE -- elle\nALLA 'OUI' jusqu'ici un", 3);
+		assertEquals(List.of("ARC-EN-CIEL", "AUJOURD'HUI", "JUSQU'ICI", "ALLA", "ELLE", "OUI"), words.words());
+		assertEquals(2, words.count(4));
+		assertEquals(1, words.count(3));
+		assertEquals(7, words.occurrences());
+		assertEquals("abba", words.pattern(3));
+		assertEquals(words.pattern(3), words.pattern(4));
+		assertEquals("abc-de-cfdg", words.pattern(0));
+
+		// Texte chiffré : mêmes mots chiffrés, mêmes nombres d'occurrences et mêmes motifs
+		String plain = "QU'IL VIENNE, L'ENFANT QU'IL EST ; JUSQU'ICI ELLE ET LUI-MEME L'ONT VU. QU'IL VIENNE !";
+		SubstitutionAlphabet key = new SubstitutionAlphabet("QWERTYUIOPASDFGHJKLZXCVBNM");
+		CryptogramWords plainWords = CryptogramWords.tokenize(plain, 2);
+		CryptogramWords cipherWords = CryptogramWords.tokenize(key.apply(plain), 2);
+		assertEquals(plainWords.size(), cipherWords.size());
+		assertEquals(plainWords.occurrences(), cipherWords.occurrences());
+		for (int i = 0; i < plainWords.size(); i++) {
+			int j = cipherWords.words().indexOf(key.apply(plainWords.words().get(i)));
+			assertTrue(j >= 0, plainWords.words().get(i) + " non trouvé une fois chiffré");
+			assertEquals(plainWords.count(i), cipherWords.count(j));
+			assertEquals(plainWords.pattern(i), cipherWords.pattern(j));
+		}
+		assertEquals(3, cipherWords.count(cipherWords.words().indexOf(key.apply("QU'IL"))));
+		assertTrue(cipherWords.words().contains(key.apply("ENFANT")));
+
+		assertEquals("abccb", CryptogramWords.pattern("belle"));
+		assertEquals(CryptogramWords.pattern("ABCD-BDEB"), CryptogramWords.pattern("peut-etre"));
+		assertNotEquals(CryptogramWords.pattern("ABCD-BDEB"), CryptogramWords.pattern("peutsetre"));
+	}
+
+	@Test
+	void dictionaryIndexTest() {
+		DictionaryIndex index = DictionaryIndex.of(dictionary);
+		assertSame(index, DictionaryIndex.of(dictionary));
+		assertEquals(dictionary.getWordsOfLength(7), index.wordsOfLength(7));
+		assertTrue(index.wordsOfLength(0).isEmpty());
+		assertTrue(index.wordsOfLength(dictionary.maxWordLength() + 1).isEmpty());
+
+		List<String> words = index.wordsWithPattern("abba");
+		assertTrue(words.contains("elle"));
+		assertTrue(words.stream().allMatch(w -> CryptogramWords.pattern(w).equals("abba")));
+		assertEquals(dictionary.getWordsOfLength(4).stream().filter(w -> CryptogramWords.pattern(w).equals("abba"))
+				.toList(), words);
+
+		// Le dictionnaire modifié est indexé à nouveau
+		LexicographicTree tree = new LexicographicTree();
+		tree.insertWord("elle");
+		DictionaryIndex small = DictionaryIndex.of(tree);
+		assertEquals(List.of("elle"), small.wordsWithPattern("abba"));
+		tree.insertWord("alla");
+		assertEquals(List.of("alla", "elle"), small.wordsWithPattern("abba"));
+		assertEquals(List.of("alla", "elle"), small.wordsOfLength(4));
+	}
+
+	@Test
+	void incrementalScorerTest() {
+		List<String> words = List.of("UMOYBUM", "PMBZJPDC", "FOOMUFYDMOMBD", "XXX");
+		SubstitutionAlphabet decoding = new SubstitutionAlphabet(DECODING_ALPHABET);
+		IncrementalScorer scorer = new IncrementalScorer(words, dictionary, new SubstitutionAlphabet(LETTERS));
+		assertEquals(0, scorer.score());
+
+		assertEquals(3, scorer.scoreWith(decoding));
+		assertEquals(0, scorer.score());
+		scorer.accept(decoding);
+		assertEquals(3, scorer.score());
+
+		// Echange des lettres F et Q : seul le mot RENFORTS est vérifié à nouveau
+		SubstitutionAlphabet swapped = new SubstitutionAlphabet(decoding);
+		swapped.swapSubstitutes('F', 'Q');
+		assertEquals(2, scorer.peekScore(swapped));
+		assertEquals(2, scorer.scoreWith(swapped));
+		scorer.accept(new SubstitutionAlphabet(LETTERS));
+		assertEquals(0, scorer.score());
+	}
+
 	private static String readFile(String pathname, Charset encoding) {
 		String data = "";
 		try {
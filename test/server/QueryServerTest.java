@@ -0,0 +1,104 @@
+package server;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import tree.LexicographicTree;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class QueryServerTest {
+	private static final String[] WORDS = new String[] {"as", "au", "aura", "aux", "dure"};
+	private static final HttpClient CLIENT = HttpClient.newHttpClient();
+	private static QueryServer server;
+
+	@BeforeAll
+	private static void startServer() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		server = new QueryServer(dict, 0, 4);
+		server.start();
+	}
+
+	@AfterAll
+	private static void stopServer() {
+		server.close();
+	}
+
+	private static HttpResponse<String> post(String path, String body) throws Exception {
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + path))
+				.POST(HttpRequest.BodyPublishers.ofString(body)).build();
+		return CLIENT.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	@Test
+	void words_Batch() throws Exception {
+		HttpResponse<String> response = post("/words", "au\nauxx\ndure\n");
+		assertEquals(200, response.statusCode());
+		assertEquals("au true\nauxx false\ndure true\n", response.body());
+		assertEquals("aur true\nb false\n", post("/prefixes", "aur\nb").body());
+
+		// Lignes contenant des caractères absents du dictionnaire
+		response = post("/words", "Aux\nété\naux\n1 2\n");
+		assertEquals(200, response.statusCode());
+		assertEquals("Aux false\nété false\naux true\n1 2 false\n", response.body());
+		assertEquals("AU false\nau true\n", post("/prefixes", "AU\nau").body());
+	}
+
+	@Test
+	void boggle_Batch() throws Exception {
+		assertEquals("aura aux dure\n\n", post("/boggle", "asxduavre\nasxx").body());
+		assertEquals(400, post("/boggle", "asx").statusCode());
+	}
+
+	@Test
+	void substitute_General() throws Exception {
+		assertEquals("BCD\n", post("/substitute?alphabet=BCDEFGHIJKLMNOPQRSTUVWXYZA", "ABC").body());
+		assertEquals(400, post("/substitute?alphabet=ABC", "ABC").statusCode());
+		assertEquals(400, post("/substitute", "ABC").statusCode());
+	}
+
+	@Test
+	void bodySizeLimit() throws Exception {
+		String largest = "x".repeat(QueryServer.MAX_BODY_BYTES);
+		assertEquals(200, post("/words", largest).statusCode());
+		assertEquals(413, post("/words", largest + "x").statusCode());
+		assertEquals(413, post("/analyze", largest + "\nx").statusCode());
+		assertEquals("aura true\n", post("/words", "aura").body()); // le serveur répond toujours
+	}
+
+	@Test
+	void concurrentClients() throws Exception {
+		ExecutorService clients = Executors.newFixedThreadPool(8);
+		try {
+			List<Future<HttpResponse<String>>> responses = new ArrayList<>();
+			for (int i = 0; i < 50; i++) {
+				responses.add(clients.submit(() -> post("/words", "aura\nxyz")));
+			}
+			for (Future<HttpResponse<String>> response : responses) {
+				assertEquals("aura true\nxyz false\n", response.get().body());
+			}
+		} finally {
+			clients.shutdownNow();
+		}
+		assertTrue(server.histograms().get("/words").count() >= 50);
+
+		HttpRequest stats = HttpRequest.newBuilder(URI.create("http://localhost:" + server.port() + "/stats")).build();
+		String body = CLIENT.send(stats, HttpResponse.BodyHandlers.ofString()).body();
+		assertTrue(body.startsWith("/words count="), body);
+		assertEquals(405, post("/stats", "").statusCode());
+	}
+}
@@ -3,6 +3,19 @@ package tree;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.GZIPOutputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import org.junit.jupiter.api.BeforeAll;
 
 /* ---------------------------------------------------------------- */
@@ -68,4 +81,269 @@ public class LexicographicTreeTest {
 		assertArrayEquals(new String[] {"c'est-a-dire", "haut-parleur"}, DICT.getWordsOfLength(12).toArray());
 	}
 
+	@Test
+	void maxWordLength_General() {
+		assertEquals(0, new LexicographicTree().maxWordLength());
+		assertEquals(12, DICT.maxWordLength());
+	}
+
+	@Test
+	void modificationCount_General() {
+		LexicographicTree dict = new LexicographicTree();
+		assertEquals(0, dict.modificationCount());
+		dict.insertWord("chien");
+		dict.insertWord("chie");
+		assertEquals(2, dict.modificationCount());
+		dict.insertWord("chien");
+		assertEquals(2, dict.modificationCount());
+	}
+
+	@Test
+	void dictionaryRegistry_General() throws Exception {
+		Path file = Files.createTempFile("dictionary", ".txt");
+		DictionaryRegistry registry = new DictionaryRegistry();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Files.write(file, List.of("as", "au", "aux"));
+			List<Future<LexicographicTree>> loads = executor.invokeAll(
+					List.of(() -> registry.get(file.toString()), () -> registry.get(file.toString()),
+							() -> registry.get(file.toString()), () -> registry.get(file.toString())));
+			LexicographicTree dict = loads.get(0).get();
+			for (Future<LexicographicTree> load : loads) {
+				assertSame(dict, load.get());
+			}
+			assertEquals(3, dict.size());
+			assertTrue(dict.isReadOnly());
+			assertThrows(UnsupportedOperationException.class, () -> dict.insertWord("bu"));
+			LexicographicTree copy = dict.union(new LexicographicTree());
+			copy.insertWord("auxx");
+			assertFalse(dict.containsWord("auxx"));
+			assertEquals(3, dict.getWords("").size());
+			assertEquals(1, registry.size());
+
+			// Fichier modifié : nouveau chargement
+			Files.write(file, List.of("as", "au", "aux", "bu"));
+			Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis() + 10_000));
+			LexicographicTree reloaded = registry.get(file.toString());
+			assertNotSame(dict, reloaded);
+			assertTrue(reloaded.containsWord("bu"));
+			assertSame(reloaded, registry.get(file.toString()));
+
+			assertNotSame(reloaded, registry.reload(file.toString()));
+			assertTrue(registry.evict(file.toString()));
+			assertFalse(registry.evict(file.toString()));
+			assertEquals(0, registry.size());
+		} finally {
+			executor.shutdownNow();
+			Files.deleteIfExists(file);
+		}
+		assertThrows(UncheckedIOException.class, () -> registry.get(file.toString()));
+	}
+
+	@Test
+	void dictionaryLoader_General() throws IOException {
+		String content = "aide\nas\r\nau\n\nAux\nc'est-a-dire\nété\nhaut-parleur";
+		Path plain = Files.createTempFile("dictionary", ".txt");
+		Path compressed = Files.createTempFile("dictionary", ".txt.gz");
+		try {
+			Files.writeString(plain, content, StandardCharsets.UTF_8);
+			try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(compressed))) {
+				out.write(content.getBytes(StandardCharsets.UTF_8));
+			}
+
+			for (Path file : List.of(plain, compressed)) {
+				LexicographicTree dict = new LexicographicTree();
+				DictionaryLoader.LoadReport report = DictionaryLoader.load(file, dict);
+				assertEquals(5, report.words());
+				assertEquals(5, dict.size());
+				assertEquals(List.of("aide", "as", "au", "c'est-a-dire", "haut-parleur"), dict.getWords(""));
+				assertEquals(2, report.malformedCount());
+				assertEquals(new DictionaryLoader.MalformedLine(5, "Aux"), report.malformedLines().get(0));
+				assertEquals(new DictionaryLoader.MalformedLine(7, "été"), report.malformedLines().get(1));
+				assertEquals(content.getBytes(StandardCharsets.UTF_8).length, report.bytes());
+				assertTrue(report.megabytesPerSecond() > 0);
+			}
+			LexicographicTree loaded = new LexicographicTree(compressed.toString());
+			assertEquals(5, loaded.size());
+			assertEquals(5, loaded.loadReport().words());
+			assertEquals(2, loaded.loadReport().malformedCount());
+			assertNull(new LexicographicTree().loadReport());
+		} finally {
+			Files.deleteIfExists(plain);
+			Files.deleteIfExists(compressed);
+		}
+		assertThrows(UncheckedIOException.class, () -> new LexicographicTree(plain.toString()));
+	}
+
+	@Test
+	void getWordsWithSuffix_General() {
+		assertEquals(List.of("as", "bus"), DICT.getWordsWithSuffix("s"));
+		assertEquals(List.of("au", "bu"), DICT.getWordsWithSuffix("u"));
+		assertEquals(List.of("haut-parleur"), DICT.getWordsWithSuffix("-parleur"));
+		assertEquals(List.of(WORDS), DICT.getWordsWithSuffix(""));
+		assertTrue(DICT.getWordsWithSuffix("z").isEmpty());
+
+		LexicographicTree dict = new LexicographicTree();
+		dict.insertWord("nation");
+		assertEquals(List.of("nation"), dict.getWordsWithSuffix("tion"));
+		dict.insertWord("action");
+		assertEquals(List.of("action", "nation"), dict.getWordsWithSuffix("tion"));
+	}
+
+	@Test
+	void getWordsContaining_General() {
+		assertEquals(List.of("au", "aux", "haut-parleur"), DICT.getWordsContaining("au"));
+		assertEquals(List.of("et", "ete"), DICT.getWordsContaining("et"));
+		assertEquals(List.of("haut-parleur"), DICT.getWordsContaining("t-p"));
+		assertEquals(List.of("aide", "c'est-a-dire"), DICT.getWordsContaining("d"));
+		assertEquals(List.of(WORDS), DICT.getWordsContaining(""));
+		assertTrue(DICT.getWordsContaining("xx").isEmpty());
+
+		LexicographicTree dict = new LexicographicTree();
+		dict.insertWord("aaab");
+		dict.insertWord("abab");
+		dict.insertWord("aab");
+		assertEquals(List.of("aaab", "aab"), dict.getWordsContaining("aab"));
+	}
+
+	@Test
+	void lookupFilters_General() {
+		LexicographicTree dict = new LexicographicTree();
+		for (String word : WORDS) {
+			dict.insertWord(word);
+		}
+		assertNull(dict.lookupFilterReport());
+		LexicographicTree.FilterReport report = dict.enableLookupFilters();
+		assertEquals(WORDS.length, report.words());
+		assertTrue(report.wordFilterBytes() > 0);
+		assertTrue(report.wordFalsePositiveRate() < 0.05);
+
+		// Aucun faux négatif, y compris pour les mots insérés ensuite
+		dict.insertWord("chien");
+		for (String word : dict.getWords("")) {
+			assertTrue(dict.containsWord(word), "Mot " + word + " non trouvé");
+			assertTrue(dict.containsWordIgnoreCase(word.toUpperCase().toCharArray(), word.length()));
+			for (int i = 0; i <= word.length(); i++) {
+				assertTrue(dict.containsPrefix(word.substring(0, i)), "Préfixe de " + word + " non trouvé");
+			}
+		}
+		for (String word : new String[] {"", "aid", "ai", "aides", "mot", "e", "chiens"}) {
+			assertFalse(dict.containsWord(word), "Mot " + word + " inexistant trouvé");
+		}
+		assertFalse(dict.containsPrefix("x"));
+		assertFalse(dict.containsPrefix("chiens"));
+		assertEquals(WORDS.length + 1, dict.lookupFilterReport().words());
+	}
+
+	@Test
+	void setOperations_General() {
+		LexicographicTree other = new LexicographicTree();
+		for (String word : new String[] {"as", "aspic", "bu", "chien", "et"}) {
+			other.insertWord(word);
+		}
+		for (boolean parallel : new boolean[] {false, true}) {
+			LexicographicTree union = DICT.union(other, parallel);
+			assertEquals(List.of("aide", "as", "aspic", "au", "aux", "bu", "bus", "but", "chien", "c'est-a-dire",
+					"et", "ete", "haut-parleur"), union.getWords(""));
+			assertEquals(13, union.size());
+			assertEquals(12, union.maxWordLength());
+			assertFalse(union.isReadOnly());
+
+			LexicographicTree intersection = DICT.intersection(other, parallel);
+			assertEquals(List.of("as", "bu", "et"), intersection.getWords(""));
+			assertEquals(3, intersection.size());
+			assertEquals(2, intersection.maxWordLength());
+			assertFalse(intersection.containsPrefix("asp"));
+
+			LexicographicTree difference = DICT.difference(other, parallel);
+			assertEquals(List.of("aide", "au", "aux", "bus", "but", "c'est-a-dire", "ete", "haut-parleur"),
+					difference.getWords(""));
+			assertEquals(List.of("aspic", "chien"), other.difference(DICT, parallel).getWords(""));
+		}
+
+		// Sous-arbres partagés : une insertion dans un arbre ne modifie pas l'autre
+		LexicographicTree copy = other.union(new LexicographicTree());
+		LexicographicTree union = copy.union(DICT);
+		assertEquals(13, union.modificationCount());
+		union.insertWord("buts");
+		copy.insertWord("aspics");
+		copy.insertWord("chie");
+		assertTrue(union.containsWord("buts"));
+		assertFalse(DICT.containsWord("buts"));
+		assertFalse(union.containsWord("aspics"));
+		assertFalse(other.containsWord("aspics"));
+		assertEquals(List.of("as", "aspic", "aspics", "bu", "chie", "chien", "et"), copy.getWords(""));
+		assertEquals(7, copy.size());
+		assertEquals(14, union.size());
+		assertEquals(List.of("aspic", "aspics", "chie", "chien"), copy.difference(DICT).getWords(""));
+		assertEquals(0, union.difference(union).size());
+		assertEquals(union.getWords(""), union.intersection(union).getWords(""));
+	}
+
+	@Test
+	void navigation_General() {
+		assertEquals("aide", DICT.ceiling(""));
+		assertEquals("as", DICT.ceiling("as"));
+		assertEquals("au", DICT.ceiling("asa"));
+		assertEquals("c'est-a-dire", DICT.ceiling("bz"));
+		assertEquals("haut-parleur", DICT.ceiling("haut"));
+		assertNull(DICT.ceiling("i"));
+
+		assertEquals("au", DICT.next("as"));
+		assertEquals("aide", DICT.next(""));
+		assertNull(DICT.next("haut-parleur"));
+
+		assertEquals("as", DICT.floor("as"));
+		assertEquals("as", DICT.floor("asz"));
+		assertEquals("aux", DICT.floor("b"));
+		assertEquals("but", DICT.floor("c"));
+		assertEquals("ete", DICT.floor("haut"));
+		assertEquals("haut-parleur", DICT.floor("z"));
+		assertNull(DICT.floor("a"));
+		assertThrows(IllegalArgumentException.class, () -> DICT.floor("As"));
+
+		List<String> words = new java.util.ArrayList<>();
+		DICT.range("au", "c").forEach(words::add);
+		assertEquals(List.of("au", "aux", "bu", "bus", "but"), words);
+		words.clear();
+		DICT.range("bv", null).forEach(words::add);
+		assertEquals(List.of("c'est-a-dire", "et", "ete", "haut-parleur"), words);
+		assertFalse(DICT.range("c", "c").iterator().hasNext());
+	}
+
+	@Test
+	void cursor_General() {
+		LexicographicTree.Cursor cursor = DICT.cursor("");
+		assertEquals(List.of("aide", "as", "au", "aux"), cursor.next(4));
+		String token = cursor.token();
+		assertEquals(List.of("bu", "bus", "but", "c'est-a-dire"), DICT.resume(token).next(4));
+		assertEquals(List.of("bu", "bus", "but", "c'est-a-dire"), cursor.next(4));
+		assertEquals(List.of("et", "ete", "haut-parleur"), cursor.next(4));
+		assertFalse(cursor.hasNext());
+		assertFalse(DICT.resume(cursor.token()).hasNext());
+
+		assertEquals(List.of("bu", "bus"), DICT.resume(DICT.cursor("bu").token()).next(2));
+		assertThrows(IllegalArgumentException.class, () -> DICT.resume("%%"));
+	}
+
+	@Test
+	void fingerprint_General() {
+		LexicographicTree dict = new LexicographicTree();
+		long empty = dict.fingerprint();
+		dict.insertWord("aux");
+		dict.insertWord("au");
+		long fingerprint = dict.fingerprint();
+		assertNotEquals(empty, fingerprint);
+
+		LexicographicTree same = new LexicographicTree();
+		same.insertWord("au");
+		same.insertWord("aux");
+		assertEquals(fingerprint, same.fingerprint());
+		same.insertWord("au");
+		assertEquals(fingerprint, same.fingerprint());
+		same.insertWord("a");
+		assertNotEquals(fingerprint, same.fingerprint());
+		assertNotEquals(DICT.fingerprint(), same.fingerprint());
+	}
+
 }